@@ -0,0 +1,62 @@
+package org.example.projecttestassignment.benchmarks;
+
+import org.example.projecttestassignment.index.BirthDateIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BirthDateIndexBenchmark {
+
+    private static final LocalDate FROM = LocalDate.of(1980, 1, 1);
+    private static final LocalDate TO = LocalDate.of(1990, 1, 1);
+
+    @Param({"100000", "1000000"})
+    private int users;
+
+    private BirthDateIndex birthDateIndex;
+    private long movedId;
+    private boolean moved;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryUserRepository userRepository = new InMemoryUserRepository();
+        userRepository.saveAll(Fixtures.users(users));
+        birthDateIndex = new BirthDateIndex(true);
+        birthDateIndex.load(userRepository::streamIdAndBirthDate);
+        movedId = users / 2;
+    }
+
+    @Benchmark
+    public long[] findPage() {
+        return birthDateIndex.find(FROM, TO, 1000, 20);
+    }
+
+    @Benchmark
+    public long[] findAfter() {
+        return birthDateIndex.findAfter(FROM, TO, LocalDate.of(1985, 6, 1), users / 3, 20);
+    }
+
+    @Benchmark
+    public void moveUser() {
+        moved = !moved;
+        birthDateIndex.put(movedId, moved ? FROM : TO);
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.projecttestassignment.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.projecttestassignment.controllers.UserController;
+import org.example.projecttestassignment.dto.ExceptionResponse;
+import org.example.projecttestassignment.dto.UserRequest;
+import org.example.projecttestassignment.exception.GlobalExceptionHandler;
+import org.example.projecttestassignment.exception.UserNotFoundException;
+import org.example.projecttestassignment.exception.error.ApiError;
+import org.example.projecttestassignment.logging.RequestLogSampler;
+import org.example.projecttestassignment.metrics.ApiMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler globalExceptionHandler;
+    private UserController userController;
+    private MethodParameter createUserParameter;
+    private UserRequest invalidRequest;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        ApiMetrics apiMetrics = new ApiMetrics(new SimpleMeterRegistry());
+        globalExceptionHandler = new GlobalExceptionHandler(apiMetrics);
+        userController = new UserController(null, null, apiMetrics, new RequestLogSampler(), null, null);
+        createUserParameter = new MethodParameter(UserController.class.getMethod("createUser", UserRequest.class, String.class), 0);
+        invalidRequest = new UserRequest("not-an-email", "", "", null, null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<ExceptionResponse> userNotFound() {
+        return userController.handleUserNotFound(new UserNotFoundException("User with id 42 not found"));
+    }
+
+    @Benchmark
+    public ResponseEntity<String> illegalArgument() {
+        return globalExceptionHandler.illegalArgumentExceptionHandler(
+                new IllegalArgumentException("Користувач повинен бути старше 18 років"));
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> internalError() {
+        return globalExceptionHandler.exceptionHandler(new IllegalStateException("Unexpected failure"));
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> validationError() {
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(invalidRequest, "userRequest");
+        bindingResult.rejectValue("email", "Email", "Email should be valid and properly formatted.");
+        bindingResult.rejectValue("firstName", "NotBlank", "First name is required.");
+        bindingResult.rejectValue("birthDate", "NotNull", "Birth date is required.");
+        return globalExceptionHandler.handleValidationExceptions(
+                new MethodArgumentNotValidException(createUserParameter, bindingResult));
+    }
+}
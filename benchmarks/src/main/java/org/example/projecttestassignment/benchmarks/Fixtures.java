@@ -0,0 +1,86 @@
+package org.example.projecttestassignment.benchmarks;
+
+import jakarta.validation.Validation;
+import org.example.projecttestassignment.cache.MissingUserCache;
+import org.example.projecttestassignment.changes.UserChangeOutbox;
+import org.example.projecttestassignment.dto.UserRequest;
+import org.example.projecttestassignment.index.BirthDateIndex;
+import org.example.projecttestassignment.model.User;
+import org.example.projecttestassignment.repository.UserRepository;
+import org.example.projecttestassignment.services.Impl.UserServiceImpl;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+final class Fixtures {
+
+    static final LocalDate TODAY = LocalDate.of(2024, 4, 27);
+
+    private Fixtures() {
+    }
+
+    static UserServiceImpl userService(UserRepository userRepository) {
+        UserServiceImpl userService = new UserServiceImpl(userRepository, () -> TODAY,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new MissingUserCache(true, 10_000, Duration.ofMinutes(1)),
+                new BirthDateIndex(false),
+                new UserChangeOutbox(false, null, null, null),
+                new TransactionTemplate(new NoOpTransactionManager()));
+        setField(userService, "MIN_AGE", 18);
+        setField(userService, "IMPORT_BATCH_SIZE", 50);
+        return userService;
+    }
+
+    // Runs the service's transaction callbacks and after-commit hooks without a database.
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    static UserRequest userRequest(int i) {
+        return new UserRequest("user" + i + "@example.com", "First" + i, "Last" + i,
+                LocalDate.of(1970 + i % 40, 1 + i % 12, 1 + i % 28), i + " Main St", "555-" + i);
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UserRequest request = userRequest(i);
+            users.add(new User((long) i, request.getEmail(), request.getFirstName(), request.getLastName(),
+                    request.getBirthDate(), request.getAddress(), request.getPhoneNumber(), 0L));
+        }
+        return users;
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
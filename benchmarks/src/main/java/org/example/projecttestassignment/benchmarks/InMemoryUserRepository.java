@@ -0,0 +1,326 @@
+package org.example.projecttestassignment.benchmarks;
+
+import org.example.projecttestassignment.dto.UserField;
+import org.example.projecttestassignment.model.User;
+import org.example.projecttestassignment.repository.UserBirthDate;
+import org.example.projecttestassignment.repository.UserRepository;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class InMemoryUserRepository implements UserRepository {
+
+    private static final Comparator<User> BY_BIRTH_DATE_AND_ID =
+            Comparator.comparing(User::getBirthDate).thenComparing(User::getId);
+
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    public <S extends User> S save(S user) {
+        if (user.getId() == null) {
+            user.setId(sequence.incrementAndGet());
+        }
+        users.put(user.getId(), user);
+        return user;
+    }
+
+    @Override
+    public <S extends User> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(user -> saved.add(save(user)));
+        return saved;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(users.get(id));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return users.containsKey(id);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return new ArrayList<>(users.values());
+    }
+
+    @Override
+    public List<User> findAllById(Iterable<Long> ids) {
+        return StreamSupport.stream(ids.spliterator(), false)
+                .map(users::get)
+                .filter(user -> user != null)
+                .toList();
+    }
+
+    @Override
+    public long count() {
+        return users.size();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        users.remove(id);
+    }
+
+    @Override
+    public void delete(User user) {
+        users.remove(user.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        ids.forEach(users::remove);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends User> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        users.clear();
+    }
+
+    @Override
+    public Slice<User> findAllBy(Pageable pageable) {
+        return new SliceImpl<>(page(users.values().stream(), pageable), pageable, false);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return users.values().stream().anyMatch(user -> user.getEmail().equals(email));
+    }
+
+    @Override
+    public Slice<User> findAllByBirthDateBetween(Pageable pageable, LocalDate from, LocalDate to) {
+        return new SliceImpl<>(page(between(from, to), pageable), pageable, false);
+    }
+
+    @Override
+    public List<User> findAllByBirthDateBetweenOrderByBirthDateAscIdAsc(LocalDate from, LocalDate to, Limit limit) {
+        return between(from, to).sorted(BY_BIRTH_DATE_AND_ID).limit(limit.max()).toList();
+    }
+
+    @Override
+    public List<User> findAllByBirthDateBetweenAfter(LocalDate from, LocalDate to, LocalDate lastBirthDate, Long lastId, Limit limit) {
+        User last = User.builder().birthDate(lastBirthDate).id(lastId).build();
+        return between(from, to)
+                .filter(user -> BY_BIRTH_DATE_AND_ID.compare(user, last) > 0)
+                .sorted(BY_BIRTH_DATE_AND_ID)
+                .limit(limit.max())
+                .toList();
+    }
+
+    @Override
+    public List<Map<String, Object>> findFields(List<UserField> fields, LocalDate from, LocalDate to, Pageable pageable) {
+        Stream<User> selected = from == null || to == null ? users.values().stream() : between(from, to);
+        return selected.sorted(BY_BIRTH_DATE_AND_ID)
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(user -> toRow(fields, user))
+                .toList();
+    }
+
+    @Override
+    public Stream<Map<String, Object>> streamFields(List<UserField> fields, LocalDate from, LocalDate to) {
+        return between(from, to).sorted(BY_BIRTH_DATE_AND_ID).map(user -> toRow(fields, user));
+    }
+
+    private static Map<String, Object> toRow(List<UserField> fields, User user) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        fields.forEach(field -> row.put(field.getAttribute(), field.valueOf(user)));
+        return row;
+    }
+
+    @Override
+    public Optional<User> updateReturning(Long id, User values, boolean partial, Long expectedVersion) {
+        User user = users.get(id);
+        if (user == null || (expectedVersion != null && !expectedVersion.equals(user.getVersion()))) {
+            return Optional.empty();
+        }
+        if (!partial || values.getEmail() != null) user.setEmail(values.getEmail());
+        if (!partial || values.getFirstName() != null) user.setFirstName(values.getFirstName());
+        if (!partial || values.getLastName() != null) user.setLastName(values.getLastName());
+        if (!partial || values.getBirthDate() != null) user.setBirthDate(values.getBirthDate());
+        if (!partial || values.getAddress() != null) user.setAddress(values.getAddress());
+        if (!partial || values.getPhoneNumber() != null) user.setPhoneNumber(values.getPhoneNumber());
+        user.setVersion(user.getVersion() == null ? 1 : user.getVersion() + 1);
+        return Optional.of(user);
+    }
+
+    @Override
+    public Stream<UserBirthDate> streamIdAndBirthDate() {
+        return users.values().stream()
+                .sorted(BY_BIRTH_DATE_AND_ID)
+                .map(user -> new UserBirthDate() {
+                    @Override
+                    public Long getId() {
+                        return user.getId();
+                    }
+
+                    @Override
+                    public LocalDate getBirthDate() {
+                        return user.getBirthDate();
+                    }
+                });
+    }
+
+    @Override
+    public List<User> searchByText(String text, String pattern, String prefix, LocalDate from, LocalDate to,
+                                   int limit, long offset) {
+        return between(from, to)
+                .filter(user -> matches(user, text, false))
+                .sorted(Comparator.comparing((User user) -> !matches(user, text, true)).thenComparing(User::getId))
+                .skip(offset)
+                .limit(limit)
+                .toList();
+    }
+
+    private static boolean matches(User user, String text, boolean prefix) {
+        return Stream.of(user.getFirstName(), user.getLastName(), user.getEmail())
+                .filter(value -> value != null)
+                .map(String::toLowerCase)
+                .anyMatch(value -> prefix ? value.startsWith(text) : value.contains(text));
+    }
+
+    @Override
+    public int deleteUserById(Long id) {
+        return users.remove(id) == null ? 0 : 1;
+    }
+
+    @Override
+    public List<Long> deleteByIdsReturning(Collection<Long> ids) {
+        return ids.stream().filter(id -> users.remove(id) != null).toList();
+    }
+
+    @Override
+    public List<Long> deleteByBirthDateBetweenReturning(LocalDate from, LocalDate to) {
+        List<Long> ids = between(from, to).map(User::getId).toList();
+        return deleteByIdsReturning(ids);
+    }
+
+    private Stream<User> between(LocalDate from, LocalDate to) {
+        return users.values().stream()
+                .filter(user -> !user.getBirthDate().isBefore(from) && !user.getBirthDate().isAfter(to));
+    }
+
+    private static List<User> page(Stream<User> users, Pageable pageable) {
+        return users.sorted(Comparator.comparing(User::getId))
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public <S extends User> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+
+    @Override
+    public <S extends User> List<S> saveAllAndFlush(Iterable<S> entities) {
+        return saveAll(entities);
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<User> entities) {
+        deleteAll(entities);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    @Override
+    public User getOne(Long id) {
+        return users.get(id);
+    }
+
+    @Override
+    public User getById(Long id) {
+        return users.get(id);
+    }
+
+    @Override
+    public User getReferenceById(Long id) {
+        return users.get(id);
+    }
+
+    @Override
+    public List<User> findAll(Sort sort) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Page<User> findAll(Pageable pageable) {
+        return new PageImpl<>(page(users.values().stream(), pageable), pageable, users.size());
+    }
+
+    @Override
+    public <S extends User> Optional<S> findOne(Example<S> example) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <S extends User> List<S> findAll(Example<S> example) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <S extends User> List<S> findAll(Example<S> example, Sort sort) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <S extends User> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <S extends User> long count(Example<S> example) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <S extends User> boolean exists(Example<S> example) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <S extends User, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.projecttestassignment.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.example.projecttestassignment.dto.UserRequest;
+import org.example.projecttestassignment.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"1", "20", "1000"})
+    private int size;
+
+    private List<User> users;
+    private byte[] usersJson;
+    private byte[] userRequestJson;
+    private ObjectWriter usersWriter;
+    private ObjectReader usersReader;
+    private ObjectReader userRequestReader;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        usersWriter = objectMapper.writerFor(new TypeReference<List<User>>() {
+        });
+        usersReader = objectMapper.readerFor(new TypeReference<List<User>>() {
+        });
+        userRequestReader = objectMapper.readerFor(UserRequest.class);
+        users = Fixtures.users(size);
+        usersJson = usersWriter.writeValueAsBytes(users);
+        userRequestJson = objectMapper.writeValueAsBytes(Fixtures.userRequest(1));
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws IOException {
+        return usersWriter.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public List<User> deserializeUsers() throws IOException {
+        return usersReader.readValue(usersJson);
+    }
+
+    @Benchmark
+    public UserRequest deserializeUserRequest() throws IOException {
+        return userRequestReader.readValue(userRequestJson);
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.projecttestassignment.benchmarks;
+
+import org.example.projecttestassignment.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Run with -prof gc to compare allocation rates (gc.alloc.rate.norm) of the old and new search logging.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final Logger SYNC_LOG = LoggerFactory.getLogger("benchmark.logging.sync");
+    private static final Logger ASYNC_LOG = LoggerFactory.getLogger("benchmark.logging.async");
+
+    @Param({"20", "1000"})
+    private int size;
+
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        users = Fixtures.users(size);
+    }
+
+    @Benchmark
+    public void fullListSync() {
+        SYNC_LOG.info("Users found: {}", new EntityGraph(users));
+    }
+
+    @Benchmark
+    public void fullListAsync() {
+        ASYNC_LOG.info("Users found: {}", new EntityGraph(users));
+    }
+
+    @Benchmark
+    public void summarySync() {
+        SYNC_LOG.info("Users found: {}", users.size());
+    }
+
+    @Benchmark
+    public void summaryAsync() {
+        ASYNC_LOG.info("Users found: {}", users.size());
+    }
+
+    // Reproduces the Lombok toString output that was logged for every User before summaries were introduced.
+    private record EntityGraph(List<User> users) {
+
+        @Override
+        public String toString() {
+            return users.stream()
+                    .map(user -> "User(id=" + user.getId() +
+                            ", email=" + user.getEmail() +
+                            ", firstName=" + user.getFirstName() +
+                            ", lastName=" + user.getLastName() +
+                            ", birthDate=" + user.getBirthDate() +
+                            ", address=" + user.getAddress() +
+                            ", phoneNumber=" + user.getPhoneNumber() + ")")
+                    .collect(Collectors.joining(", ", "[", "]"));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.projecttestassignment.benchmarks;
+
+import org.example.projecttestassignment.dto.UserRequest;
+import org.example.projecttestassignment.model.User;
+import org.example.projecttestassignment.services.Impl.UserServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private InMemoryUserRepository userRepository;
+    private UserServiceImpl userService;
+    private UserRequest createRequest;
+    private UserRequest patchRequest;
+    private Long existingId;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        userRepository = new InMemoryUserRepository();
+        userService = Fixtures.userService(userRepository);
+        createRequest = Fixtures.userRequest(1);
+        patchRequest = new UserRequest(null, "Patched", null, null, "1 Patched St", null);
+        User seed = Fixtures.users(1).get(0);
+        seed.setId(null);
+        existingId = userRepository.save(seed).getId();
+    }
+
+    @Benchmark
+    public User createUser() {
+        User user = userService.createUser(createRequest);
+        userRepository.deleteById(user.getId());
+        return user;
+    }
+
+    @Benchmark
+    public User partialUpdateUser() {
+        return userService.partialUpdateUser(existingId, patchRequest);
+    }
+}
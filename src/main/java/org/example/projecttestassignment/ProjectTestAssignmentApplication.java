@@ -2,12 +2,15 @@ package org.example.projecttestassignment;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class ProjectTestAssignmentApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(ProjectTestAssignmentApplication.class, args);
+        SpringApplication application = new SpringApplication(ProjectTestAssignmentApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(2048));
+        application.run(args);
     }
 
 }
@@ -0,0 +1,39 @@
+package org.example.projecttestassignment.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Single-process stand-in for the shared tier, used in tests and local runs.
+public class InMemorySharedUserCache implements SharedUserCache {
+
+    private final Map<Long, VersionedUser> entries = new ConcurrentHashMap<>();
+    private final List<Consumer<UserCacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public VersionedUser get(Long userId) {
+        return entries.get(userId);
+    }
+
+    @Override
+    public void put(Long userId, VersionedUser entry) {
+        entries.compute(userId, (id, current) -> entry.supersedes(current) ? entry : current);
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public void publish(UserCacheInvalidation invalidation) {
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+
+    @Override
+    public void subscribe(Consumer<UserCacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+}
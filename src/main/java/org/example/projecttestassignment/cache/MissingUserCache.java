@@ -0,0 +1,77 @@
+package org.example.projecttestassignment.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.dto.CacheStatsResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Slf4j
+@Component
+public class MissingUserCache {
+
+    private final Cache<Long, Boolean> missingIds;
+
+    public MissingUserCache(@Value("${user.cache.missing.enabled}") boolean enabled,
+                            @Value("${user.cache.missing.maximum-size}") long maximumSize,
+                            @Value("${user.cache.missing.ttl}") Duration ttl) {
+        if (enabled) {
+            log.info("Creating missing user cache with maximum size {} and ttl {}", maximumSize, ttl);
+            missingIds = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build();
+        } else {
+            log.info("Missing user cache is disabled");
+            missingIds = null;
+        }
+    }
+
+    public boolean isMissing(Long id) {
+        return missingIds != null && missingIds.getIfPresent(id) != null;
+    }
+
+    public void markMissing(Long id) {
+        if (missingIds != null) {
+            missingIds.put(id, Boolean.TRUE);
+        }
+    }
+
+    public void markPresent(Long id) {
+        if (missingIds != null) {
+            missingIds.invalidate(id);
+        }
+    }
+
+    // Invalidations broadcast through the shared user cache, so a mark for an id created on another node
+    // does not outlive the create.
+    public void onInvalidation(UserCacheInvalidation invalidation) {
+        if (invalidation.userId() == null) {
+            clear();
+        } else if (invalidation.version() == VersionedUser.DELETED) {
+            markMissing(invalidation.userId());
+        } else {
+            markPresent(invalidation.userId());
+        }
+    }
+
+    public void clear() {
+        if (missingIds != null) {
+            missingIds.invalidateAll();
+        }
+    }
+
+    public CacheStatsResponse stats() {
+        if (missingIds == null) {
+            return new CacheStatsResponse(false, 0, 0, 0, 0, 0);
+        }
+        CacheStats stats = missingIds.stats();
+        return new CacheStatsResponse(true, missingIds.estimatedSize(),
+                stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate());
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.projecttestassignment.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.model.User;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Each user is a hash {version, user}; a tombstone is a hash without the user field.
+// The version check runs inside Redis so concurrent writers from different nodes cannot interleave.
+@Slf4j
+public class RedisSharedUserCache implements SharedUserCache {
+
+    private static final RedisScript<Long> PUT_IF_NEWER = RedisScript.of("""
+            local current = redis.call('HGET', KEYS[1], 'version')
+            if current then
+                local version = tonumber(current)
+                local incoming = tonumber(ARGV[1])
+                if version > incoming or (version == incoming
+                        and (ARGV[2] == '' or redis.call('HEXISTS', KEYS[1], 'user') == 1)) then
+                    return 0
+                end
+            end
+            if ARGV[2] == '' then
+                redis.call('HDEL', KEYS[1], 'user')
+            else
+                redis.call('HSET', KEYS[1], 'user', ARGV[2])
+            end
+            redis.call('HSET', KEYS[1], 'version', ARGV[1])
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return 1
+            """, Long.class);
+
+    private static final int CLEAR_BATCH_SIZE = 1000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final String keyPrefix;
+    private final ChannelTopic channel;
+    private final Duration ttl;
+
+    public RedisSharedUserCache(StringRedisTemplate redisTemplate, RedisMessageListenerContainer listenerContainer,
+                                ObjectMapper objectMapper, String keyPrefix, String channel, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        this.keyPrefix = keyPrefix;
+        this.channel = ChannelTopic.of(channel);
+        this.ttl = ttl;
+    }
+
+    @Override
+    public VersionedUser get(Long userId) {
+        List<Object> values = redisTemplate.opsForHash().multiGet(key(userId), List.of("version", "user"));
+        if (values.get(0) == null) {
+            return null;
+        }
+        long version = Long.parseLong((String) values.get(0));
+        if (values.get(1) == null) {
+            return VersionedUser.tombstone(version);
+        }
+        User user = read((String) values.get(1), User.class);
+        user.setVersion(version);
+        return new VersionedUser(user, version);
+    }
+
+    @Override
+    public void put(Long userId, VersionedUser entry) {
+        redisTemplate.execute(PUT_IF_NEWER, List.of(key(userId)), String.valueOf(entry.version()),
+                entry.isTombstone() ? "" : write(entry.user()), String.valueOf(ttl.toMillis()));
+    }
+
+    @Override
+    public void clear() {
+        List<String> batch = new ArrayList<>(CLEAR_BATCH_SIZE);
+        try (Cursor<String> keys = redisTemplate.scan(ScanOptions.scanOptions().match(keyPrefix + "*").count(CLEAR_BATCH_SIZE).build())) {
+            while (keys.hasNext()) {
+                batch.add(keys.next());
+                if (batch.size() == CLEAR_BATCH_SIZE) {
+                    redisTemplate.unlink(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            redisTemplate.unlink(batch);
+        }
+    }
+
+    @Override
+    public void publish(UserCacheInvalidation invalidation) {
+        redisTemplate.convertAndSend(channel.getTopic(), write(invalidation));
+    }
+
+    @Override
+    public void subscribe(Consumer<UserCacheInvalidation> listener) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                listener.accept(read(new String(message.getBody()), UserCacheInvalidation.class));
+            } catch (RuntimeException e) {
+                log.warn("Ignoring user cache invalidation that could not be applied: {}", e.getMessage());
+            }
+        }, channel);
+    }
+
+    private String key(Long userId) {
+        return keyPrefix + userId;
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T read(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.projecttestassignment.cache;
+
+import java.util.function.Consumer;
+
+// Shared tier behind the per-node near-cache, plus the channel nodes use to invalidate each other.
+public interface SharedUserCache {
+
+    VersionedUser get(Long userId);
+
+    // Stores the entry only if it supersedes the one already there.
+    void put(Long userId, VersionedUser entry);
+
+    void clear();
+
+    void publish(UserCacheInvalidation invalidation);
+
+    void subscribe(Consumer<UserCacheInvalidation> listener);
+}
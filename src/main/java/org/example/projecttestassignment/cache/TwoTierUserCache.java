@@ -0,0 +1,155 @@
+package org.example.projecttestassignment.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.model.User;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+// Near-cache per node in front of a SharedUserCache. Writes go to both tiers and are broadcast so other
+// nodes drop their copy; entries carry the user version so a slow read can never overwrite a newer write.
+@Slf4j
+public class TwoTierUserCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Long, VersionedUser> local;
+    private final SharedUserCache shared;
+    private final String nodeId;
+
+    public TwoTierUserCache(String name, com.github.benmanes.caffeine.cache.Cache<Long, VersionedUser> local,
+                            SharedUserCache shared, String nodeId) {
+        this.name = name;
+        this.local = local;
+        this.shared = shared;
+        this.nodeId = nodeId;
+        shared.subscribe(this::onInvalidation);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public com.github.benmanes.caffeine.cache.Cache<Long, VersionedUser> getNativeCache() {
+        return local;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        User user = lookup((Long) key);
+        return user == null ? null : new SimpleValueWrapper(user);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        User user = lookup((Long) key);
+        if (user != null && type != null && !type.isInstance(user)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + user);
+        }
+        return (T) user;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Long userId = (Long) key;
+        User cached = lookup(userId);
+        if (cached != null) {
+            return (T) cached;
+        }
+        // Loaded outside any cache lock: if an invalidation for a newer version lands meanwhile, its
+        // tombstone wins the version check below and the loaded row is returned but not cached.
+        VersionedUser loaded = VersionedUser.of(load(key, valueLoader));
+        storeLocal(userId, loaded);
+        sharedTier("put", () -> shared.put(userId, loaded));
+        return (T) loaded.user();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Cache '" + name + "' does not allow null values");
+        }
+        Long userId = (Long) key;
+        VersionedUser entry = VersionedUser.of((User) value);
+        storeLocal(userId, entry);
+        sharedTier("put", () -> shared.put(userId, entry));
+        sharedTier("publish", () -> shared.publish(new UserCacheInvalidation(nodeId, userId, entry.version())));
+    }
+
+    // Evicted ids stay blocked until the tombstone expires, so a read racing with the delete cannot
+    // put the old row back.
+    @Override
+    public void evict(Object key) {
+        Long userId = (Long) key;
+        VersionedUser tombstone = VersionedUser.tombstone(VersionedUser.DELETED);
+        local.put(userId, tombstone);
+        sharedTier("put", () -> shared.put(userId, tombstone));
+        sharedTier("publish", () -> shared.publish(new UserCacheInvalidation(nodeId, userId, VersionedUser.DELETED)));
+    }
+
+    @Override
+    public void clear() {
+        local.invalidateAll();
+        sharedTier("clear", shared::clear);
+        sharedTier("publish", () -> shared.publish(new UserCacheInvalidation(nodeId, null, 0L)));
+    }
+
+    private User lookup(Long userId) {
+        VersionedUser entry = local.getIfPresent(userId);
+        if (entry != null && !entry.isTombstone()) {
+            return entry.user();
+        }
+        VersionedUser remote = sharedTier("get", () -> shared.get(userId));
+        if (remote == null || remote.isTombstone() || !remote.supersedes(entry)) {
+            return null;
+        }
+        storeLocal(userId, remote);
+        return remote.user();
+    }
+
+    private void onInvalidation(UserCacheInvalidation invalidation) {
+        if (nodeId.equals(invalidation.origin())) {
+            return;
+        }
+        if (invalidation.userId() == null) {
+            local.invalidateAll();
+            return;
+        }
+        storeLocal(invalidation.userId(), VersionedUser.tombstone(invalidation.version()));
+    }
+
+    private void storeLocal(Long userId, VersionedUser entry) {
+        local.asMap().merge(userId, entry, (current, incoming) -> incoming.supersedes(current) ? incoming : current);
+    }
+
+    private static User load(Object key, Callable<?> valueLoader) {
+        try {
+            return (User) valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    // The shared tier is an optimisation: when it is unreachable the node keeps serving from its own
+    // cache and the database instead of failing the request.
+    private void sharedTier(String operation, Runnable action) {
+        sharedTier(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private <T> T sharedTier(String operation, Supplier<T> action) {
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            log.warn("Shared user cache {} failed: {}", operation, e.getMessage());
+            return null;
+        }
+    }
+}
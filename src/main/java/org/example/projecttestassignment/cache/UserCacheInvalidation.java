@@ -0,0 +1,5 @@
+package org.example.projecttestassignment.cache;
+
+// userId == null invalidates every entry.
+public record UserCacheInvalidation(String origin, Long userId, long version) {
+}
@@ -0,0 +1,28 @@
+package org.example.projecttestassignment.cache;
+
+import org.example.projecttestassignment.model.User;
+
+// A cached user, or a tombstone (user == null) that keeps older versions from being cached again.
+public record VersionedUser(User user, long version) {
+
+    public static final long DELETED = Long.MAX_VALUE;
+
+    public static VersionedUser of(User user) {
+        return new VersionedUser(user, user.getVersion() == null ? 0L : user.getVersion());
+    }
+
+    public static VersionedUser tombstone(long version) {
+        return new VersionedUser(null, version);
+    }
+
+    public boolean isTombstone() {
+        return user == null;
+    }
+
+    // A value of the same version replaces the tombstone left by the invalidation for that version.
+    public boolean supersedes(VersionedUser current) {
+        return current == null
+                || version > current.version
+                || version == current.version && current.isTombstone() && !isTombstone();
+    }
+}
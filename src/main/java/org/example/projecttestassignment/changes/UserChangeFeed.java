@@ -0,0 +1,125 @@
+package org.example.projecttestassignment.changes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.dto.UserChangeEvent;
+import org.example.projecttestassignment.dto.UserChanges;
+import org.example.projecttestassignment.exception.ChangesExpiredException;
+import org.example.projecttestassignment.model.UserChange;
+import org.example.projecttestassignment.repository.UserChangeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class UserChangeFeed {
+
+    public static final int MAX_LIMIT = 1000;
+
+    private final UserChangeRepository userChangeRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration pollTimeout;
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+    private final AtomicLong publishedPosition = new AtomicLong();
+
+    public UserChangeFeed(UserChangeRepository userChangeRepository,
+                          ObjectMapper objectMapper,
+                          @Value("${user.changes.poll-timeout}") Duration pollTimeout) {
+        this.userChangeRepository = userChangeRepository;
+        this.objectMapper = objectMapper;
+        this.pollTimeout = pollTimeout;
+    }
+
+    public DeferredResult<UserChanges> poll(long since, int limit) {
+        if (since < 0 || limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("since must not be negative and limit must be between 1 and " + MAX_LIMIT);
+        }
+        DeferredResult<UserChanges> result = new DeferredResult<>(pollTimeout.toMillis(), () -> UserChanges.empty(since));
+        UserChanges changes = read(since, limit);
+        if (changes.changes().isEmpty()) {
+            checkNotAhead(since);
+        }
+        if (!changes.changes().isEmpty() || pollTimeout.isZero()) {
+            result.setResult(changes);
+            return result;
+        }
+        Waiter waiter = new Waiter(since, limit, result);
+        waiters.add(waiter);
+        result.onCompletion(() -> waiters.remove(waiter));
+        // The relay may have published between the read above and registering the waiter.
+        if (publishedPosition.get() > since && waiters.remove(waiter)) {
+            result.setResult(read(since, limit));
+        }
+        return result;
+    }
+
+    public boolean hasWaiters() {
+        return !waiters.isEmpty();
+    }
+
+    public void published(long position) {
+        publishedPosition.accumulateAndGet(position, Math::max);
+        Map<Waiter, UserChanges> reads = new HashMap<>();
+        for (Waiter waiter : waiters) {
+            if (waiter.since() < position && waiters.remove(waiter)) {
+                Waiter key = new Waiter(waiter.since(), waiter.limit(), null);
+                try {
+                    waiter.result().setResult(reads.computeIfAbsent(key, k -> read(k.since(), k.limit())));
+                } catch (ChangesExpiredException e) {
+                    waiter.result().setErrorResult(e);
+                }
+            }
+        }
+    }
+
+    private UserChanges read(long since, int limit) {
+        List<UserChangeEvent> events = userChangeRepository
+                .findByPositionGreaterThanOrderByPosition(since, Limit.of(limit))
+                .stream()
+                .map(this::toEvent)
+                .toList();
+        // Positions are consecutive and cleanup only removes the oldest ones, so a jump means the
+        // consumer fell further behind than the retention period and has missed changes.
+        if (since > 0 && !events.isEmpty() && events.get(0).position() > since + 1) {
+            throw new ChangesExpiredException("Changes after position " + since + " are no longer retained; "
+                    + "resync and continue from position " + (events.get(0).position() - 1));
+        }
+        return events.isEmpty() ? UserChanges.empty(since) : new UserChanges(events, events.get(events.size() - 1).position());
+    }
+
+    // A position beyond the latest one was handed out before the outbox was emptied, e.g. by recreating the schema.
+    private void checkNotAhead(long since) {
+        if (since == 0) {
+            return;
+        }
+        Long latest = userChangeRepository.findMaxPosition();
+        if (latest == null || latest < since) {
+            throw new ChangesExpiredException("Position " + since + " is ahead of the change feed, which was reset; "
+                    + "resync and continue from position " + (latest == null ? 0 : latest));
+        }
+    }
+
+    UserChangeEvent toEvent(UserChange change) {
+        try {
+            return new UserChangeEvent(change.getPosition(), change.getUserId(), change.getType(), change.getCreatedAt(),
+                    change.getPayload() == null ? null : objectMapper.readTree(change.getPayload()));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Waiter(long since, int limit, DeferredResult<UserChanges> result) {
+    }
+}
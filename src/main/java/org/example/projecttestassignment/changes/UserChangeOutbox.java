@@ -0,0 +1,72 @@
+package org.example.projecttestassignment.changes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.model.User;
+import org.example.projecttestassignment.model.UserChange;
+import org.example.projecttestassignment.model.UserChangeType;
+import org.example.projecttestassignment.repository.UserChangeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Slf4j
+@Component
+public class UserChangeOutbox {
+
+    private final boolean enabled;
+    private final UserChangeRepository userChangeRepository;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    public UserChangeOutbox(@Value("${user.changes.enabled}") boolean enabled,
+                            UserChangeRepository userChangeRepository,
+                            ObjectMapper objectMapper,
+                            Clock clock) {
+        this.enabled = enabled;
+        this.userChangeRepository = userChangeRepository;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        if (!enabled) {
+            log.info("User change outbox is disabled");
+        }
+    }
+
+    // Must join the caller's transaction so the change commits or rolls back with the user row.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(UserChangeType type, User user) {
+        change(type, user).ifPresent(userChangeRepository::save);
+    }
+
+    // For writers outside JPA, which insert the row in their own transaction. Empty when the outbox is disabled.
+    public Optional<UserChange> change(UserChangeType type, User user) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.of(UserChange.builder()
+                .userId(user.getId())
+                .type(type)
+                .payload(type == UserChangeType.DELETED ? null : toJson(user))
+                .createdAt(LocalDateTime.now(clock))
+                .build());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Long userId) {
+        record(UserChangeType.DELETED, User.builder().id(userId).build());
+    }
+
+    private String toJson(User user) {
+        try {
+            return objectMapper.writeValueAsString(user);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize user " + user.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.projecttestassignment.changes;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.model.UserChange;
+import org.example.projecttestassignment.repository.UserChangeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "user.changes.enabled", havingValue = "true")
+public class UserChangeRelay {
+
+    private final int batchSize;
+    private final Duration retention;
+    private final UserChangeRepository userChangeRepository;
+    private final UserChangeFeed userChangeFeed;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    public UserChangeRelay(@Value("${user.changes.relay.batch-size}") int batchSize,
+                           @Value("${user.changes.retention}") Duration retention,
+                           UserChangeRepository userChangeRepository,
+                           UserChangeFeed userChangeFeed,
+                           ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager,
+                           Clock clock) {
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.userChangeRepository = userChangeRepository;
+        this.userChangeFeed = userChangeFeed;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${user.changes.relay.interval}")
+    public void relay() {
+        List<UserChange> batch;
+        do {
+            try {
+                batch = transactionTemplate.execute(status -> publishBatch());
+            } catch (DataIntegrityViolationException | OptimisticLockingFailureException e) {
+                // Another instance published part of our batch, or took the same positions, first. Our whole
+                // batch rolls back and is selected again on the next run.
+                log.debug("Concurrent relay detected, retrying on next run: {}", e.getMessage());
+                return;
+            }
+            if (!batch.isEmpty()) {
+                batch.stream().map(userChangeFeed::toEvent).forEach(eventPublisher::publishEvent);
+                userChangeFeed.published(batch.get(batch.size() - 1).getPosition());
+            }
+        } while (batch.size() == batchSize);
+        if (userChangeFeed.hasWaiters()) {
+            Long position = userChangeRepository.findMaxPosition();
+            if (position != null) {
+                userChangeFeed.published(position);
+            }
+        }
+    }
+
+    // Only a prefix of the feed is removed, so it never has holes, and the latest change is always kept
+    // because the next position is taken from max(position) and numbering must not restart.
+    @Scheduled(fixedDelayString = "${user.changes.cleanup-interval}")
+    public void cleanup() {
+        Long retained = userChangeRepository.findMinPositionSince(LocalDateTime.now(clock).minus(retention));
+        if (retained == null) {
+            retained = userChangeRepository.findMaxPosition();
+        }
+        if (retained == null) {
+            return;
+        }
+        int deleted = userChangeRepository.deleteByPositionBefore(retained);
+        if (deleted > 0) {
+            log.info("Removed {} published user changes older than {}", deleted, retention);
+        }
+    }
+
+    // Positions are handed out in the order the relay publishes, not in insert order, so a
+    // transaction that commits late still lands after everything consumers have already seen.
+    private List<UserChange> publishBatch() {
+        List<UserChange> batch = userChangeRepository.findByPositionIsNullOrderByInsertOrder(Limit.of(batchSize));
+        if (batch.isEmpty()) {
+            return batch;
+        }
+        Long max = userChangeRepository.findMaxPosition();
+        long position = max == null ? 0 : max;
+        for (UserChange change : batch) {
+            if (userChangeRepository.assignPosition(change.getId(), ++position) == 0) {
+                throw new OptimisticLockingFailureException("User change " + change.getId() + " was already published");
+            }
+            change.setPosition(position);
+        }
+        log.debug("Published {} user changes up to position {}", batch.size(), position);
+        return batch;
+    }
+}
@@ -3,10 +3,12 @@ package org.example.projecttestassignment.config;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.time.Clock;
 @Slf4j
 @Configuration
+@EnableScheduling
 public class AppConfig {
 
     @Bean
@@ -0,0 +1,79 @@
+package org.example.projecttestassignment.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.cache.InMemorySharedUserCache;
+import org.example.projecttestassignment.cache.MissingUserCache;
+import org.example.projecttestassignment.cache.SharedUserCache;
+import org.example.projecttestassignment.cache.TwoTierUserCache;
+import org.example.projecttestassignment.cache.VersionedUser;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS_CACHE = "users";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${user.cache.enabled}") boolean enabled,
+                                     @Value("${user.cache.maximum-size}") long maximumSize,
+                                     @Value("${user.cache.ttl}") Duration ttl,
+                                     ObjectProvider<SharedUserCache> sharedUserCache,
+                                     MissingUserCache missingUserCache) {
+        if (!enabled) {
+            log.info("User cache is disabled");
+            return new NoOpCacheManager();
+        }
+        SharedUserCache shared = sharedUserCache.getIfAvailable();
+        if (shared == null) {
+            log.info("Creating user cache with maximum size {} and ttl {}", maximumSize, ttl);
+            CaffeineCache cache = new CaffeineCache(USERS_CACHE, Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build(), false);
+            return transactionAware(cache);
+        }
+        log.info("Creating two-tier user cache with maximum size {} and ttl {} in front of {}",
+                maximumSize, ttl, shared.getClass().getSimpleName());
+        com.github.benmanes.caffeine.cache.Cache<Long, VersionedUser> local = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        TwoTierUserCache cache = new TwoTierUserCache(USERS_CACHE, local, shared, UUID.randomUUID().toString());
+        shared.subscribe(missingUserCache::onInvalidation);
+        return transactionAware(cache);
+    }
+
+    // Puts and evictions from @CachePut/@CacheEvict are applied, and for the two-tier cache broadcast,
+    // only after the commit, so a rolled back or conflicting write never reaches the cache.
+    private static CacheManager transactionAware(Cache cache) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(new TransactionAwareCacheDecorator(cache)));
+        return cacheManager;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "user.cache.shared.type", havingValue = "memory")
+    public SharedUserCache inMemorySharedUserCache() {
+        return new InMemorySharedUserCache();
+    }
+}
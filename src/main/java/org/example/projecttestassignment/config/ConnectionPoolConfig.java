@@ -0,0 +1,34 @@
+package org.example.projecttestassignment.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+public class ConnectionPoolConfig {
+
+    // With user.datasource.pool.connections-per-core above 0, the primary pool is sized with HikariCP's
+    // rule of thumb (cores * 2 + spindles) and kept full, so a burst never waits for new connections.
+    @Bean
+    public static BeanPostProcessor connectionPoolSizer(
+            @Value("${user.datasource.pool.connections-per-core}") int connectionsPerCore,
+            @Value("${user.datasource.pool.spindles}") int spindles) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (connectionsPerCore > 0 && bean instanceof HikariDataSource hikari) {
+                    int size = Runtime.getRuntime().availableProcessors() * connectionsPerCore + spindles;
+                    log.info("Sizing connection pool {} to {} connections for {} cores", beanName, size,
+                            Runtime.getRuntime().availableProcessors());
+                    hikari.setMaximumPoolSize(size);
+                    hikari.setMinimumIdle(size);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.projecttestassignment.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.datasource.ReadWriteRoutingDataSource;
+import org.example.projecttestassignment.datasource.ReadYourWrites;
+import org.example.projecttestassignment.datasource.ReplicaPool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Replaces Boot's single DataSource: spring.datasource becomes the primary pool, and the routing
+// DataSource in front of it sends read-only transactions to user.datasource.replicas.
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "user.datasource.replicas.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaPool replicaPool(@Value("${user.datasource.replicas.urls}") List<String> urls,
+                                   @Value("${user.datasource.replicas.username}") String username,
+                                   @Value("${user.datasource.replicas.password}") String password,
+                                   @Value("${user.datasource.replicas.pool-size}") int poolSize,
+                                   @Value("${user.datasource.replicas.timeout}") Duration timeout,
+                                   MeterRegistry meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setConnectionTimeout(timeout.toMillis());
+            replica.setReadOnly(true);
+            // start without the replica rather than fail; the health check brings it back
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(replica);
+        }
+        log.info("Routing read-only transactions to {} replicas with pools of {}", replicas.size(), poolSize);
+        return new ReplicaPool(replicas, timeout);
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(@Value("${user.datasource.read-your-writes.window}") Duration window,
+                                         @Value("${user.datasource.read-your-writes.max-clients}") long maxClients) {
+        log.info("Pinning clients to the primary for {} after a write", window);
+        return new ReadYourWrites(window, maxClients);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPool replicaPool, ReadYourWrites readYourWrites) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primaryDataSource, replicaPool, readYourWrites));
+    }
+}
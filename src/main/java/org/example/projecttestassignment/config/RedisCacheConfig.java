@@ -0,0 +1,53 @@
+package org.example.projecttestassignment.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.cache.RedisSharedUserCache;
+import org.example.projecttestassignment.cache.SharedUserCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+
+// Redis auto-configuration is excluded so that nodes without a shared cache neither connect to Redis
+// nor report it in their health; the connection is only created here.
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "user.cache.shared.type", havingValue = "redis")
+public class RedisCacheConfig {
+
+    @Bean
+    public LettuceConnectionFactory redisConnectionFactory(@Value("${user.cache.shared.redis.url}") String url) {
+        log.info("Connecting shared user cache to {}", url.replaceAll("//[^@/]*@", "//"));
+        return new LettuceConnectionFactory(LettuceConnectionFactory.createRedisConfiguration(url));
+    }
+
+    @Bean
+    public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        return new StringRedisTemplate(redisConnectionFactory);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        return container;
+    }
+
+    @Bean
+    public SharedUserCache redisSharedUserCache(StringRedisTemplate stringRedisTemplate,
+                                                RedisMessageListenerContainer redisMessageListenerContainer,
+                                                ObjectMapper objectMapper,
+                                                @Value("${user.cache.shared.redis.key-prefix}") String keyPrefix,
+                                                @Value("${user.cache.shared.redis.channel}") String channel,
+                                                @Value("${user.cache.ttl}") Duration ttl) {
+        return new RedisSharedUserCache(stringRedisTemplate, redisMessageListenerContainer, objectMapper,
+                keyPrefix, channel, ttl);
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.projecttestassignment.controllers;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.dto.GenerationRequest;
+import org.example.projecttestassignment.dto.GenerationResult;
+import org.example.projecttestassignment.generator.GeneratorUsers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequestMapping("/admin/users")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AdminController {
+
+    private final GeneratorUsers generatorUsers;
+    @Value("${user.generator.endpoint-enabled}")
+    private boolean ENDPOINT_ENABLED;
+
+    @PostMapping("/generate")
+    public ResponseEntity<GenerationResult> generateUsers(@RequestBody GenerationRequest request) {
+        if (!ENDPOINT_ENABLED) {
+            return ResponseEntity.notFound().build();
+        }
+        log.info("Received request to generate {} users", request.count());
+        GenerationResult result = generatorUsers.generate(request);
+        log.info("Generated {} users at {} rows/s", result.rows(), result.rowsPerSecond());
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.projecttestassignment.controllers;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.example.projecttestassignment.cache.MissingUserCache;
+import org.example.projecttestassignment.config.CacheConfig;
+import org.example.projecttestassignment.dto.CacheStatsResponse;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/cache")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final CacheManager cacheManager;
+    private final MissingUserCache missingUserCache;
+
+    @GetMapping("/users")
+    public ResponseEntity<CacheStatsResponse> userCacheStats() {
+        Cache cache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        if (cache == null || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+            return ResponseEntity.ok(new CacheStatsResponse(false, 0, 0, 0, 0, 0));
+        }
+        CacheStats stats = nativeCache.stats();
+        return ResponseEntity.ok(new CacheStatsResponse(true,
+                nativeCache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.evictionCount(),
+                stats.hitRate()));
+    }
+
+    @GetMapping("/missing-users")
+    public ResponseEntity<CacheStatsResponse> missingUserCacheStats() {
+        return ResponseEntity.ok(missingUserCache.stats());
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.projecttestassignment.controllers;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.dto.ExceptionResponse;
+import org.example.projecttestassignment.dto.UserRequest;
+import org.example.projecttestassignment.exception.UserNotFoundException;
+import org.example.projecttestassignment.logging.RequestLogSampler;
+import org.example.projecttestassignment.metrics.ApiMetrics;
+import org.example.projecttestassignment.model.User;
+import org.example.projecttestassignment.services.ReactiveUserService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Slf4j
+@RestController
+@RequestMapping("/users")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+
+    private final ReactiveUserService reactiveUserService;
+    private final ApiMetrics apiMetrics;
+    private final RequestLogSampler requestLogSampler;
+
+    @PostMapping
+    public Mono<ResponseEntity<User>> createUser(@Valid @RequestBody UserRequest userRequest, ServerWebExchange exchange) {
+        if (requestLogSampler.isSampled("create")) log.info("Received request to create user");
+        return reactiveUserService.createUser(userRequest).map(savedUser -> {
+            URI location = UriComponentsBuilder.fromUri(exchange.getRequest().getURI())
+                    .path("/{id}")
+                    .buildAndExpand(savedUser.getId())
+                    .toUri();
+            return ResponseEntity.created(location).body(savedUser);
+        });
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<User>> getUser(@PathVariable Long id, ServerWebExchange exchange) {
+        if (requestLogSampler.isSampled("get")) log.info("Received request to retrieve user with ID: {}", id);
+        return reactiveUserService.findUserById(id).map(user -> {
+            String eTag = UserHeaders.eTag(user);
+            if (eTag != null && exchange.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            return ResponseEntity.ok().eTag(eTag).body(user);
+        });
+    }
+
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<User> searchUsers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (requestLogSampler.isSampled("search")) log.info("Received request to stream users with date range: from {} to {}", from, to);
+        return reactiveUserService.searchUsers(from, to);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<User>> updateUser(@PathVariable Long id, @Valid @RequestBody UserRequest userRequest,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (requestLogSampler.isSampled("update")) log.info("Received request to update user with ID: {}", id);
+        return expectedVersion(id, ifMatch)
+                .flatMap(expectedVersion -> reactiveUserService.updateUser(id, userRequest, expectedVersion.orElse(null)))
+                .map(user -> ResponseEntity.ok().eTag(UserHeaders.eTag(user)).body(user));
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<User>> patchUser(@PathVariable Long id, @RequestBody UserRequest userRequest,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (requestLogSampler.isSampled("patch")) log.info("Received request to partially update user with ID: {}", id);
+        return expectedVersion(id, ifMatch)
+                .flatMap(expectedVersion -> reactiveUserService.partialUpdateUser(id, userRequest, expectedVersion.orElse(null)))
+                .map(user -> ResponseEntity.ok().eTag(UserHeaders.eTag(user)).body(user));
+    }
+
+    private Mono<Optional<Long>> expectedVersion(Long id, String ifMatch) {
+        return Mono.defer(() -> {
+            List<Long> versions = UserHeaders.parseIfMatch(ifMatch);
+            if (versions.size() < 2) {
+                return Mono.just(versions.stream().findFirst());
+            }
+            return reactiveUserService.findUserById(id)
+                    .map(user -> Optional.of(UserHeaders.matchVersion(ifMatch, versions, user.getVersion())));
+        });
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteUser(@PathVariable Long id) {
+        if (requestLogSampler.isSampled("delete")) log.info("Received request to delete user with ID: {}", id);
+        return reactiveUserService.deleteUser(id).then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<ExceptionResponse> handleUserNotFound(UserNotFoundException ex) {
+        apiMetrics.recordError(ex);
+        ExceptionResponse response = new ExceptionResponse(LocalDateTime.now(),
+                HttpStatus.NOT_FOUND.value(),
+                ex.getMessage());
+
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+}
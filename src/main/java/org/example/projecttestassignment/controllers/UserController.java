@@ -1,91 +1,260 @@
 package org.example.projecttestassignment.controllers;
 
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.changes.UserChangeFeed;
+import org.example.projecttestassignment.dto.BatchImportResult;
+import org.example.projecttestassignment.dto.BulkDeleteResult;
 import org.example.projecttestassignment.dto.ExceptionResponse;
+import org.example.projecttestassignment.dto.UserField;
+import org.example.projecttestassignment.dto.UserChanges;
 import org.example.projecttestassignment.dto.UserRequest;
+import org.example.projecttestassignment.dto.UserSlice;
 import org.example.projecttestassignment.exception.UserNotFoundException;
+import org.example.projecttestassignment.export.ExportFormat;
+import org.example.projecttestassignment.export.UserExportWriter;
+import org.example.projecttestassignment.idempotency.IdempotencyStore;
+import org.example.projecttestassignment.logging.RequestLogSampler;
+import org.example.projecttestassignment.metrics.ApiMetrics;
 import org.example.projecttestassignment.model.User;
 import org.example.projecttestassignment.services.UserService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 @Slf4j
 @RestController
 @RequestMapping("/users")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserController {
 
     private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final ApiMetrics apiMetrics;
+    private final RequestLogSampler requestLogSampler;
+    private final IdempotencyStore idempotencyStore;
+    private final UserChangeFeed userChangeFeed;
 
 
 
 
     @PostMapping
-    public ResponseEntity<User> createUser(@Valid @RequestBody UserRequest userRequest) {
-        log.info("Received request to create user: {}", userRequest);
-        User savedUser = userService.createUser(userRequest);
-        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
-                .path("/{id}")
-                .buildAndExpand(savedUser.getId())
-                .toUri();
-        log.info("User created successfully: {}", savedUser);
-        return ResponseEntity.created(location).body(savedUser);
+    public ResponseEntity<User> createUser(@Valid @RequestBody UserRequest userRequest,
+                                           @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                           HttpServletRequest httpRequest) {
+        boolean logged = requestLogSampler.isSampled("create");
+        if (logged) log.info("Received request to create user");
+        return idempotencyStore.execute(httpRequest, idempotencyKey, userRequest, () -> {
+            User savedUser = userService.createUser(userRequest);
+            URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .path("/{id}")
+                    .buildAndExpand(savedUser.getId())
+                    .toUri();
+            if (logged) log.info("User created successfully with ID: {}", savedUser.getId());
+            return ResponseEntity.created(location).body(savedUser);
+        });
+    }
+
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchImportResult> importUsers(InputStream body) throws IOException {
+        log.info("Received request to import users");
+        try (MappingIterator<UserRequest> requests = objectMapper.readerFor(UserRequest.class).readValues(body)) {
+            BatchImportResult result = userService.importUsers(rows(requests));
+            log.info("Users imported: {} created, {} failed", result.created(), result.failed());
+            return ResponseEntity.ok(result);
+        }
+    }
+
+    // Jackson resyncs to the next value after a mapping error, so such a row is reported and the import goes on.
+    private static Iterator<UserRequest> rows(MappingIterator<UserRequest> requests) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return requests.hasNext();
+            }
+
+            @Override
+            public UserRequest next() {
+                try {
+                    return requests.next();
+                } catch (RuntimeJsonMappingException e) {
+                    String message = e.getCause() instanceof JsonMappingException cause ? cause.getOriginalMessage() : e.getMessage();
+                    throw new IllegalArgumentException("Malformed row: " + message, e);
+                }
+            }
+        };
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUser(@PathVariable Long id) {
-        log.info("Received request to retrieve user with ID: {}", id);
+    public ResponseEntity<User> getUser(@PathVariable Long id, WebRequest webRequest) {
+        boolean logged = requestLogSampler.isSampled("get");
+        if (logged) log.info("Received request to retrieve user with ID: {}", id);
         User user = userService.findUserById(id);
-        log.info("User retrieved successfully: {}", user);
-        return ResponseEntity.ok(user);
+        if (logged) log.info("User retrieved successfully with ID: {}", user.getId());
+        String eTag = UserHeaders.eTag(user);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(user);
     }
     @GetMapping("/search")
-    public ResponseEntity<List<User>> searchUsers(
+    public ResponseEntity<List<?>> searchUsers(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String fields,
             Pageable pageable) {
-        log.info("Received request to search users with date range: from {} to {}", from, to);
-        List<User> users = userService.searchUsers(pageable, from, to);
-        log.info("Users found: {}", users);
+        boolean logged = requestLogSampler.isSampled("search");
+        if (logged) log.info("Received request to search users with date range: from {} to {}", from, to);
+        List<?> users = fields == null
+                ? userService.searchUsers(pageable, from, to)
+                : userService.searchUsers(pageable, from, to, UserField.parse(fields));
+        if (logged) log.info("Users found: {}", users.size());
         return ResponseEntity.ok(users);
 
     }
+    @GetMapping(value = "/search", params = {"q", "!cursor", "!mode"})
+    public ResponseEntity<List<User>> searchUsersByText(
+            @RequestParam String q,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Pageable pageable) {
+        boolean logged = requestLogSampler.isSampled("search");
+        if (logged) log.info("Received request to search users matching '{}' with date range: from {} to {}", q, from, to);
+        List<User> users = userService.searchUsers(q, from, to, pageable);
+        if (logged) log.info("Users found: {}", users.size());
+        return ResponseEntity.ok(users);
+    }
+    // First page of keyset pagination; later pages pass the nextCursor of the previous one.
+    @GetMapping(value = "/search", params = {"mode=cursor", "!cursor"})
+    public ResponseEntity<UserSlice> searchUsersFirstCursorPage(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "20") int size) {
+        return searchUsersByCursor(from, to, null, size);
+    }
+    @GetMapping(value = "/search", params = "cursor")
+    public ResponseEntity<UserSlice> searchUsersByCursor(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        boolean logged = requestLogSampler.isSampled("search");
+        if (logged) log.info("Received request to search users with date range: from {} to {} after cursor {}", from, to, cursor);
+        UserSlice slice = userService.searchUsers(from, to, cursor, size);
+        if (logged) log.info("Users found: {}", slice.users().size());
+        return ResponseEntity.ok(slice);
+    }
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String fields) {
+        log.info("Received request to export users with date range: from {} to {} as {}", from, to, format);
+        ExportFormat exportFormat = ExportFormat.of(format);
+        List<UserField> selected = fields == null ? UserField.all() : UserField.parse(fields);
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Invalid date range: 'from' should be before 'to'.");
+        }
+        StreamingResponseBody body = out -> {
+            try (UserExportWriter writer = exportFormat.open(objectMapper, out, selected)) {
+                userService.exportUsers(from, to, selected, row -> {
+                    try {
+                        writer.write(row);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(exportFormat.getMediaType()).body(body);
+    }
+
+    @GetMapping("/changes")
+    public DeferredResult<UserChanges> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                  @RequestParam(defaultValue = "100") int limit) {
+        if (requestLogSampler.isSampled("changes")) log.info("Received request for user changes since {}", since);
+        return userChangeFeed.poll(since, limit);
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<User> updateUser(@PathVariable Long id, @Valid @RequestBody UserRequest userRequest) {
-        log.info("Received request to update user with ID {}: {}", id, userRequest);
-        User updateUser=userService.updateUser(id, userRequest);
-        log.info("User updated successfully: {}", updateUser);
-        return ResponseEntity.ok(updateUser);
+    public ResponseEntity<User> updateUser(@PathVariable Long id, @Valid @RequestBody UserRequest userRequest,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        boolean logged = requestLogSampler.isSampled("update");
+        if (logged) log.info("Received request to update user with ID: {}", id);
+        Long expectedVersion = UserHeaders.expectedVersion(ifMatch, () -> userService.findUserById(id).getVersion());
+        User updateUser=expectedVersion == null
+                ? userService.updateUser(id, userRequest)
+                : userService.updateUser(id, userRequest, expectedVersion);
+        if (logged) log.info("User updated successfully with ID: {}", id);
+        return ResponseEntity.ok().eTag(UserHeaders.eTag(updateUser)).body(updateUser);
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<User> patchUser(@PathVariable Long id, @RequestBody UserRequest userRequest) {
-        log.info("Received request to partially update user with ID {}: {}", id, userRequest);
-        User updateUser=userService.partialUpdateUser(id, userRequest);
-        log.info("User partially updated successfully: {}", updateUser);
-        return ResponseEntity.ok(updateUser);
+    public ResponseEntity<User> patchUser(@PathVariable Long id, @RequestBody UserRequest userRequest,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        boolean logged = requestLogSampler.isSampled("patch");
+        if (logged) log.info("Received request to partially update user with ID: {}", id);
+        Long expectedVersion = UserHeaders.expectedVersion(ifMatch, () -> userService.findUserById(id).getVersion());
+        User updateUser=expectedVersion == null
+                ? userService.partialUpdateUser(id, userRequest)
+                : userService.partialUpdateUser(id, userRequest, expectedVersion);
+        if (logged) log.info("User partially updated successfully with ID: {}", id);
+        return ResponseEntity.ok().eTag(UserHeaders.eTag(updateUser)).body(updateUser);
     }
     @DeleteMapping("/{id}")
     public ResponseEntity<User> deleteUser(@PathVariable Long id) {
-        log.info("Received request to delete user with ID: {}", id);
+        boolean logged = requestLogSampler.isSampled("delete");
+        if (logged) log.info("Received request to delete user with ID: {}", id);
         userService.deleteUser(id);
-        log.info("User deleted successfully");
+        if (logged) log.info("User deleted successfully with ID: {}", id);
         return ResponseEntity.noContent().build();
     }
 
+    @DeleteMapping
+    public ResponseEntity<BulkDeleteResult> deleteUsers(
+            @RequestParam(required = false) List<Long> ids,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        boolean byIds = ids != null && !ids.isEmpty();
+        boolean byRange = from != null && to != null;
+        if (byIds == byRange) {
+            throw new IllegalArgumentException("Either 'ids' or both 'from' and 'to' must be given");
+        }
+        log.info("Received request to delete users by {}", byIds ? "ids" : "birth date range");
+        int deleted = byIds ? userService.deleteUsers(ids) : userService.deleteUsers(from, to);
+        log.info("Users deleted: {}", deleted);
+        return ResponseEntity.ok(new BulkDeleteResult(deleted));
+    }
+
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<ExceptionResponse> handleUserNotFound(UserNotFoundException ex) {
+        apiMetrics.recordError(ex);
         ExceptionResponse response = new ExceptionResponse(LocalDateTime.now(),
                 HttpStatus.NOT_FOUND.value(),
                 ex.getMessage());
@@ -0,0 +1,62 @@
+package org.example.projecttestassignment.controllers;
+
+import org.example.projecttestassignment.exception.PreconditionFailedException;
+import org.example.projecttestassignment.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+final class UserHeaders {
+
+    private UserHeaders() {
+    }
+
+    static String eTag(User user) {
+        return user.getVersion() == null ? null : "\"" + user.getVersion() + "\"";
+    }
+
+    // Versions named by strong tags in If-Match; empty when the header is absent or "*".
+    static List<Long> parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return List.of();
+        }
+        List<Long> versions = new ArrayList<>();
+        for (String entry : ifMatch.split(",")) {
+            String tag = entry.trim();
+            // If-Match uses the strong comparison, so a weak tag (W/"3") never matches.
+            if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                try {
+                    versions.add(Long.parseLong(tag.substring(1, tag.length() - 1)));
+                } catch (NumberFormatException ignored) {
+                    // not one of our tags
+                }
+            }
+        }
+        if (versions.isEmpty()) {
+            throw notMatched(ifMatch);
+        }
+        return versions;
+    }
+
+    // A single tag is checked by the update itself; for a list the current version is looked up
+    // and, when listed, passed on so the update still fails if the user changes in between.
+    static Long expectedVersion(String ifMatch, Supplier<Long> currentVersion) {
+        List<Long> versions = parseIfMatch(ifMatch);
+        if (versions.isEmpty()) {
+            return null;
+        }
+        return versions.size() == 1 ? versions.get(0) : matchVersion(ifMatch, versions, currentVersion.get());
+    }
+
+    static Long matchVersion(String ifMatch, List<Long> versions, Long currentVersion) {
+        if (!versions.contains(currentVersion)) {
+            throw notMatched(ifMatch);
+        }
+        return currentVersion;
+    }
+
+    private static PreconditionFailedException notMatched(String ifMatch) {
+        return new PreconditionFailedException("If-Match does not match any version of this user: " + ifMatch);
+    }
+}
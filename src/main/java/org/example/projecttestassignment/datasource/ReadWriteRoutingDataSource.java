@@ -0,0 +1,61 @@
+package org.example.projecttestassignment.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Read-only transactions go to a replica unless the request is pinned to the primary; everything else,
+// and any read whose replica cannot hand out a connection, goes to the primary. Must sit behind a
+// LazyConnectionDataSourceProxy so the connection is fetched after the transaction is marked read-only.
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private final HikariDataSource primary;
+    private final ReplicaPool replicas;
+    private final ReadYourWrites readYourWrites;
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, ReplicaPool replicas, ReadYourWrites readYourWrites) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || readYourWrites.isPinned()) {
+            return primary.getConnection();
+        }
+        HikariDataSource replica = replicas.next();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            replicas.markDown(replica, e);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    // Pool-level callers such as the load shedder and the pool metrics look at the primary.
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+}
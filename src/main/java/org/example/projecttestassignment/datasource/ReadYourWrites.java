@@ -0,0 +1,58 @@
+package org.example.projecttestassignment.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.core.task.TaskDecorator;
+
+import java.time.Duration;
+
+// Clients that wrote within the window have their requests pinned to the primary, so they never
+// read a replica that has not caught up with their own write yet. Writers are remembered per node only.
+public class ReadYourWrites implements TaskDecorator {
+
+    private final Cache<String, Boolean> recentWriters;
+    private final ThreadLocal<Boolean> pinned = new ThreadLocal<>();
+
+    public ReadYourWrites(Duration window, long maxClients) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxClients)
+                .build();
+    }
+
+    public void recordWrite(String client) {
+        recentWriters.put(client, Boolean.TRUE);
+    }
+
+    public boolean wroteRecently(String client) {
+        return recentWriters.getIfPresent(client) != null;
+    }
+
+    public void pin() {
+        pinned.set(Boolean.TRUE);
+    }
+
+    public void release() {
+        pinned.remove();
+    }
+
+    public boolean isPinned() {
+        return pinned.get() != null;
+    }
+
+    // Carries the pin over to async work such as streamed exports.
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        if (!isPinned()) {
+            return runnable;
+        }
+        return () -> {
+            pin();
+            try {
+                runnable.run();
+            } finally {
+                release();
+            }
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.projecttestassignment.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.projecttestassignment.ratelimit.ThrottlingFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+@ConditionalOnProperty(name = "user.datasource.replicas.enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ReadYourWrites readYourWrites;
+    private final String clientHeader;
+
+    public ReadYourWritesFilter(ReadYourWrites readYourWrites,
+                                @Value("${user.rate-limit.client-header:}") String clientHeader) {
+        this.readYourWrites = readYourWrites;
+        this.clientHeader = clientHeader;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/users");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = ThrottlingFilter.clientId(request, clientHeader);
+        // Recorded before the write runs, so the client cannot get its response and read ahead of it.
+        if (ThrottlingFilter.isWrite(request)) {
+            readYourWrites.recordWrite(client);
+        }
+        if (!readYourWrites.wroteRecently(client)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        readYourWrites.pin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            readYourWrites.release();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.projecttestassignment.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class ReplicaPool implements HealthIndicator, DisposableBean {
+
+    // Not part of the aggregate order, so losing every replica does not mark the service down:
+    // the primary still serves all reads.
+    static final Status DEGRADED = new Status("DEGRADED", "No healthy replica, reads are served by the primary");
+
+    private final List<Replica> replicas;
+    private final int validationTimeoutSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaPool(List<HikariDataSource> dataSources, Duration validationTimeout) {
+        this.replicas = dataSources.stream().map(Replica::new).toList();
+        this.validationTimeoutSeconds = (int) Math.max(1, validationTimeout.toSeconds());
+    }
+
+    // Round robin over the healthy replicas; null when there is none.
+    public HikariDataSource next() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica.dataSource;
+            }
+        }
+        return null;
+    }
+
+    public void markDown(HikariDataSource dataSource, SQLException e) {
+        for (Replica replica : replicas) {
+            if (replica.dataSource == dataSource && replica.healthy) {
+                replica.healthy = false;
+                log.warn("Replica {} is down, its reads go to the primary until it recovers: {}",
+                        replica.dataSource.getPoolName(), e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${user.datasource.replicas.health-check-interval}")
+    public void check() {
+        for (Replica replica : replicas) {
+            boolean healthy = isValid(replica.dataSource);
+            if (healthy != replica.healthy) {
+                if (healthy) {
+                    log.info("Replica {} recovered", replica.dataSource.getPoolName());
+                } else {
+                    log.warn("Replica {} failed its health check", replica.dataSource.getPoolName());
+                }
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = replicas.stream().anyMatch(replica -> replica.healthy) ? Health.up() : Health.status(DEGRADED);
+        replicas.forEach(replica -> builder.withDetail(replica.dataSource.getPoolName(), replica.healthy ? Status.UP : Status.DOWN));
+        return builder.build();
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private boolean isValid(HikariDataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
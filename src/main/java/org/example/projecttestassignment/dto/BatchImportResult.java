@@ -0,0 +1,22 @@
+package org.example.projecttestassignment.dto;
+
+import java.util.List;
+
+public record BatchImportResult(
+        int received,
+        int created,
+        int failed,
+        List<RowResult> rows
+) {
+
+    public record RowResult(int row, Long id, String error) {
+
+        public static RowResult created(int row, Long id) {
+            return new RowResult(row, id, null);
+        }
+
+        public static RowResult failed(int row, String error) {
+            return new RowResult(row, null, error);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package org.example.projecttestassignment.dto;
+
+public record BulkDeleteResult(
+        int deleted
+) {
+}
@@ -0,0 +1,11 @@
+package org.example.projecttestassignment.dto;
+
+public record CacheStatsResponse(
+        boolean enabled,
+        long size,
+        long hits,
+        long misses,
+        long evictions,
+        double hitRate
+) {
+}
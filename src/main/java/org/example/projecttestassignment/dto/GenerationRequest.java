@@ -0,0 +1,18 @@
+package org.example.projecttestassignment.dto;
+
+import org.example.projecttestassignment.generator.BirthDateDistribution;
+
+public record GenerationRequest(
+        Long count,
+        Integer workers,
+        Integer batchSize,
+        BirthDateDistribution distribution,
+        Integer minAge,
+        Integer maxAge,
+        Long seed,
+        String emailPrefix
+) {
+    public static GenerationRequest of(long count) {
+        return new GenerationRequest(count, null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.projecttestassignment.dto;
+
+public record GenerationResult(
+        long rows,
+        long elapsedMillis,
+        long rowsPerSecond
+) {
+}
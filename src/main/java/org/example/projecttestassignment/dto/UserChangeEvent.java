@@ -0,0 +1,15 @@
+package org.example.projecttestassignment.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.example.projecttestassignment.model.UserChangeType;
+
+import java.time.LocalDateTime;
+
+public record UserChangeEvent(
+        long position,
+        Long userId,
+        UserChangeType type,
+        LocalDateTime createdAt,
+        JsonNode user
+) {
+}
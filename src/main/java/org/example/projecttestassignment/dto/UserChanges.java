@@ -0,0 +1,10 @@
+package org.example.projecttestassignment.dto;
+
+import java.util.List;
+
+public record UserChanges(List<UserChangeEvent> changes, long next) {
+
+    public static UserChanges empty(long since) {
+        return new UserChanges(List.of(), since);
+    }
+}
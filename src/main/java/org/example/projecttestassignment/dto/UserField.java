@@ -0,0 +1,59 @@
+package org.example.projecttestassignment.dto;
+
+import org.example.projecttestassignment.model.User;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+public enum UserField {
+    ID("id", User::getId),
+    EMAIL("email", User::getEmail),
+    FIRST_NAME("firstName", User::getFirstName),
+    LAST_NAME("lastName", User::getLastName),
+    BIRTH_DATE("birthDate", User::getBirthDate),
+    ADDRESS("address", User::getAddress),
+    PHONE_NUMBER("phoneNumber", User::getPhoneNumber);
+
+    private static final List<UserField> ALL = List.of(values());
+
+    private final String attribute;
+    private final Function<User, Object> getter;
+
+    UserField(String attribute, Function<User, Object> getter) {
+        this.attribute = attribute;
+        this.getter = getter;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public Object valueOf(User user) {
+        return getter.apply(user);
+    }
+
+    public static List<UserField> all() {
+        return ALL;
+    }
+
+    public static UserField of(String attribute) {
+        return Arrays.stream(values())
+                .filter(field -> field.attribute.equals(attribute))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown user field: " + attribute));
+    }
+
+    public static List<UserField> parse(String fields) {
+        List<UserField> parsed = Arrays.stream(fields.split(","))
+                .map(String::strip)
+                .filter(field -> !field.isEmpty())
+                .map(UserField::of)
+                .distinct()
+                .toList();
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("At least one field must be given");
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.projecttestassignment.dto;
+
+import org.example.projecttestassignment.model.User;
+
+import java.util.List;
+
+public record UserSlice(
+        List<User> users,
+        String nextCursor
+) {
+}
@@ -0,0 +1,8 @@
+package org.example.projecttestassignment.exception;
+
+public class ChangesExpiredException extends RuntimeException {
+
+    public ChangesExpiredException(String message) {
+        super(message);
+    }
+}
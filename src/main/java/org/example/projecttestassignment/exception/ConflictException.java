@@ -0,0 +1,8 @@
+package org.example.projecttestassignment.exception;
+
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -1,37 +1,129 @@
 package org.example.projecttestassignment.exception;
 
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import io.r2dbc.spi.R2dbcException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.projecttestassignment.exception.error.ApiError;
+import org.example.projecttestassignment.metrics.ApiMetrics;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import java.sql.SQLException;
 import java.util.List;
 import java.util.stream.Collectors;
 @Slf4j
 @ControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final ApiMetrics apiMetrics;
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> illegalArgumentExceptionHandler(IllegalArgumentException e) {
         log.error("Illegal argument exception occurred: {}", e.getMessage());
+        apiMetrics.recordError(e);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
     }
 
+    @ExceptionHandler(RuntimeJsonMappingException.class)
+    public ResponseEntity<ApiError> jsonMappingExceptionHandler(RuntimeJsonMappingException e) {
+        log.error("Malformed request body: {}", e.getMessage());
+        apiMetrics.recordError(e);
+        ApiError apiError = new ApiError(HttpStatus.BAD_REQUEST, "Malformed request body", List.of(e.getMessage()));
+        return new ResponseEntity<>(apiError, apiError.getStatus());
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ApiError> preconditionFailedExceptionHandler(PreconditionFailedException e) {
+        log.warn("Precondition failed: {}", e.getMessage());
+        apiMetrics.recordError(e);
+        ApiError apiError = new ApiError(HttpStatus.PRECONDITION_FAILED, "Precondition failed", List.of(e.getMessage()));
+        return new ResponseEntity<>(apiError, apiError.getStatus());
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ApiError> conflictExceptionHandler(ConflictException e) {
+        log.warn("Conflict: {}", e.getMessage());
+        apiMetrics.recordError(e);
+        ApiError apiError = new ApiError(HttpStatus.CONFLICT, "Conflict", List.of(e.getMessage()));
+        return new ResponseEntity<>(apiError, apiError.getStatus());
+    }
+
+    @ExceptionHandler(ChangesExpiredException.class)
+    public ResponseEntity<ApiError> changesExpiredExceptionHandler(ChangesExpiredException e) {
+        log.warn("Change feed position expired: {}", e.getMessage());
+        apiMetrics.recordError(e);
+        ApiError apiError = new ApiError(HttpStatus.GONE, "Changes expired", List.of(e.getMessage()));
+        return new ResponseEntity<>(apiError, apiError.getStatus());
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiError> dataIntegrityViolationExceptionHandler(DataIntegrityViolationException e) {
+        log.warn("Constraint violation: {}", e.getMostSpecificCause().getMessage());
+        apiMetrics.recordError(e);
+        ApiError apiError = isUniqueViolation(e)
+                ? new ApiError(HttpStatus.CONFLICT, "Conflict", List.of("The request conflicts with an existing user"))
+                : new ApiError(HttpStatus.BAD_REQUEST, "Constraint violation", List.of("The request violates a data constraint"));
+        return new ResponseEntity<>(apiError, apiError.getStatus());
+    }
+
+    // Only a unique violation means another user holds the value; NOT NULL and length violations are bad input.
+    private static boolean isUniqueViolation(DataIntegrityViolationException e) {
+        if (e instanceof DuplicateKeyException) {
+            return true;
+        }
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && UNIQUE_VIOLATION.equals(sqlException.getSQLState())
+                    || cause instanceof R2dbcException r2dbcException && UNIQUE_VIOLATION.equals(r2dbcException.getSqlState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiError> optimisticLockingFailureExceptionHandler(OptimisticLockingFailureException e) {
+        log.warn("Concurrent modification detected: {}", e.getMessage());
+        apiMetrics.recordError(e);
+        ApiError apiError = new ApiError(HttpStatus.CONFLICT, "Concurrent modification", List.of("The user was modified by another request"));
+        return new ResponseEntity<>(apiError, apiError.getStatus());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> exceptionHandler(Exception e) {
         log.error("Internal server error occurred: {}", e.getMessage());
+        apiMetrics.recordError(e);
         ApiError apiError = new ApiError(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error", List.of(e.getMessage()));
         return new ResponseEntity<>(apiError, apiError.getStatus());
     }
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Object> handleValidationExceptions(
             MethodArgumentNotValidException ex) {
-        log.error("Validation exception occurred: {}", ex.getMessage());
-        List<String> errors = ex.getBindingResult()
+        return validationError(ex, ex.getBindingResult());
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Object> handleReactiveValidationExceptions(WebExchangeBindException ex) {
+        return validationError(ex, ex.getBindingResult());
+    }
+
+    private ResponseEntity<Object> validationError(Exception ex, BindingResult bindingResult) {
+        log.error("Validation exception occurred: {} field errors", bindingResult.getFieldErrorCount());
+        apiMetrics.recordError(ex);
+        List<String> errors = bindingResult
                 .getFieldErrors()
                 .stream()
                 .map(FieldError::getDefaultMessage)
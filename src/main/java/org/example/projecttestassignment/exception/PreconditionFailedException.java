@@ -0,0 +1,8 @@
+package org.example.projecttestassignment.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.projecttestassignment.export;
+
+import org.example.projecttestassignment.dto.UserField;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class CsvUserExportWriter implements UserExportWriter {
+
+    private final Writer writer;
+    private final List<UserField> fields;
+
+    public CsvUserExportWriter(OutputStream out, List<UserField> fields) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.fields = fields;
+        writer.write(fields.stream().map(UserField::getAttribute).collect(Collectors.joining(",")));
+        writer.write('\n');
+    }
+
+    @Override
+    public void write(Map<String, Object> row) throws IOException {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeField(row.get(fields.get(i).getAttribute()));
+        }
+        writer.write('\n');
+    }
+
+    private void writeField(Object field) throws IOException {
+        if (field == null) {
+            return;
+        }
+        String value = field.toString();
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.projecttestassignment.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.projecttestassignment.dto.UserField;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+public enum ExportFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    CSV(new MediaType("text", "csv"));
+
+    private final MediaType mediaType;
+
+    ExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public UserExportWriter open(ObjectMapper objectMapper, OutputStream out, List<UserField> fields) throws IOException {
+        return this == CSV ? new CsvUserExportWriter(out, fields) : new NdjsonUserExportWriter(objectMapper, out);
+    }
+
+    public static ExportFormat of(String format) {
+        return Arrays.stream(values())
+                .filter(value -> value.name().equalsIgnoreCase(format))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported export format: " + format));
+    }
+}
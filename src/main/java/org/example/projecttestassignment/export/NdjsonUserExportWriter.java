@@ -0,0 +1,29 @@
+package org.example.projecttestassignment.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+public class NdjsonUserExportWriter implements UserExportWriter {
+
+    private final SequenceWriter writer;
+
+    public NdjsonUserExportWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        this.writer = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .writeValues(out);
+    }
+
+    @Override
+    public void write(Map<String, Object> row) throws IOException {
+        writer.write(row);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.projecttestassignment.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+public interface UserExportWriter extends Closeable {
+
+    void write(Map<String, Object> row) throws IOException;
+}
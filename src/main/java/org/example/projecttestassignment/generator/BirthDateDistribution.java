@@ -0,0 +1,24 @@
+package org.example.projecttestassignment.generator;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.random.RandomGenerator;
+
+public enum BirthDateDistribution {
+    UNIFORM {
+        @Override
+        public LocalDate sample(RandomGenerator random, LocalDate earliest, LocalDate latest) {
+            return earliest.plusDays(random.nextLong(ChronoUnit.DAYS.between(earliest, latest) + 1));
+        }
+    },
+    NORMAL {
+        @Override
+        public LocalDate sample(RandomGenerator random, LocalDate earliest, LocalDate latest) {
+            long span = ChronoUnit.DAYS.between(earliest, latest);
+            long offset = Math.round(span / 2.0 + random.nextGaussian() * span / 6.0);
+            return earliest.plusDays(Math.max(0, Math.min(span, offset)));
+        }
+    };
+
+    public abstract LocalDate sample(RandomGenerator random, LocalDate earliest, LocalDate latest);
+}
@@ -1,38 +1,191 @@
 package org.example.projecttestassignment.generator;
 
 import com.github.javafaker.Faker;
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 
 import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.cache.MissingUserCache;
+import org.example.projecttestassignment.dto.GenerationRequest;
+import org.example.projecttestassignment.dto.GenerationResult;
+import org.example.projecttestassignment.index.BirthDateIndex;
+import org.example.projecttestassignment.index.BirthDateIndexLoader;
 import org.example.projecttestassignment.model.User;
-import org.example.projecttestassignment.repository.UserRepository;
+import org.example.projecttestassignment.services.TimeProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
-import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class GeneratorUsers {
-    private final UserRepository userRepository;
-    @PostConstruct
-    public void init() {
-        generateUsers();
+public class GeneratorUsers implements ApplicationRunner {
+
+    private static final String INSERT_SQL = "insert into users " +
+            "(id, email, first_name, last_name, birth_date, address, phone_number, version) " +
+            "values (?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String NEXT_ID_BLOCK_SQL = "select nextval('users_seq')";
+    private static final long MAX_COUNT = 100_000_000;
+    private static final int MAX_WORKERS = 64;
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int NAME_POOL_SIZE = 512;
+    private static final long PROGRESS_INTERVAL = 100_000;
+    private static final Pattern EMAIL_PREFIX = Pattern.compile("[a-z0-9._-]{1,40}");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TimeProvider timeProvider;
+    private final MissingUserCache missingUserCache;
+    private final BirthDateIndex birthDateIndex;
+    private final BirthDateIndexLoader birthDateIndexLoader;
+    @Value("${user.seed.enabled}")
+    private boolean SEED_ENABLED;
+    @Value("${user.seed.count}")
+    private long SEED_COUNT;
+    @Value("${user.min-age}")
+    private Integer MIN_AGE;
+    @Value("${user.generator.max-age}")
+    private Integer MAX_AGE;
+    @Value("${user.generator.workers}")
+    private Integer WORKERS;
+    @Value("${user.generator.batch-size}")
+    private Integer BATCH_SIZE;
+    @Value("${user.generator.distribution}")
+    private BirthDateDistribution DISTRIBUTION;
+    @Value("${user.generator.seed:#{null}}")
+    private Long SEED;
+    @Value("${user.generator.email-prefix:#{null}}")
+    private String EMAIL_PREFIX_DEFAULT;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!SEED_ENABLED) {
+            log.info("Seeding users is disabled");
+            return;
+        }
+        generate(GenerationRequest.of(SEED_COUNT));
+    }
+
+    public GenerationResult generate(GenerationRequest request) {
+        long count = request.count() == null ? 0 : request.count();
+        int workers = request.workers() == null ? WORKERS : request.workers();
+        int batchSize = request.batchSize() == null ? BATCH_SIZE : request.batchSize();
+        BirthDateDistribution distribution = request.distribution() == null ? DISTRIBUTION : request.distribution();
+        int minAge = request.minAge() == null ? MIN_AGE : request.minAge();
+        int maxAge = request.maxAge() == null ? MAX_AGE : request.maxAge();
+        long seed = request.seed() != null ? request.seed() : SEED != null ? SEED : System.nanoTime();
+        String emailPrefix = request.emailPrefix() != null ? request.emailPrefix()
+                : EMAIL_PREFIX_DEFAULT != null ? EMAIL_PREFIX_DEFAULT
+                : "gen" + Long.toString(System.currentTimeMillis(), 36);
+        if (count < 1 || count > MAX_COUNT) {
+            throw new IllegalArgumentException("Count must be between 1 and " + MAX_COUNT);
+        }
+        if (workers < 1 || workers > MAX_WORKERS) {
+            throw new IllegalArgumentException("Workers must be between 1 and " + MAX_WORKERS);
+        }
+        if (batchSize < 1 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        if (minAge < MIN_AGE || maxAge < minAge) {
+            throw new IllegalArgumentException("Ages must satisfy " + MIN_AGE + " <= minAge <= maxAge");
+        }
+        if (!EMAIL_PREFIX.matcher(emailPrefix).matches()) {
+            throw new IllegalArgumentException("Invalid email prefix: " + emailPrefix);
+        }
+
+        LocalDate today = timeProvider.currentDate();
+        Plan plan = new Plan(count, batchSize, distribution, today.minusYears(maxAge + 1L).plusDays(1),
+                today.minusYears(minAge), emailPrefix);
+        log.info("Generating {} users with {} workers in batches of {}, {} birth dates between {} and {}, seed {}",
+                count, workers, batchSize, distribution, plan.earliest(), plan.latest(), seed);
+
+        long started = System.nanoTime();
+        AtomicLong inserted = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int worker = 0; worker < workers; worker++) {
+                long from = count * worker / workers;
+                long to = count * (worker + 1) / workers;
+                SplittableRandom random = new SplittableRandom(seed + worker);
+                futures.add(executor.submit(() -> insertRange(plan, from, to, random, inserted)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("User generation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("User generation failed after " + inserted.get() + " rows", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        long rowsPerSecond = inserted.get() * 1000 / elapsedMillis;
+        log.info("Generated {} users in {} ms ({} rows/s)", inserted.get(), elapsedMillis, rowsPerSecond);
+        missingUserCache.clear();
+        if (birthDateIndex.isWarm()) {
+            birthDateIndexLoader.load();
+        }
+        return new GenerationResult(inserted.get(), elapsedMillis, rowsPerSecond);
+    }
+
+    private void insertRange(Plan plan, long from, long to, SplittableRandom random, AtomicLong inserted) {
+        Faker faker = new Faker(new Random(random.nextLong()));
+        String[] firstNames = new String[NAME_POOL_SIZE];
+        String[] lastNames = new String[NAME_POOL_SIZE];
+        String[] addresses = new String[NAME_POOL_SIZE];
+        for (int i = 0; i < NAME_POOL_SIZE; i++) {
+            firstNames[i] = faker.name().firstName();
+            lastNames[i] = faker.name().lastName();
+            addresses[i] = faker.address().streetAddress();
+        }
+        List<Object[]> batch = new ArrayList<>(plan.batchSize());
+        long nextId = 0;
+        long lastId = -1;
+        for (long index = from; index < to; index++) {
+            if (nextId > lastId) {
+                // same block layout as Hibernate's pooled optimizer, so JPA inserts never reuse these ids
+                lastId = jdbcTemplate.queryForObject(NEXT_ID_BLOCK_SQL, Long.class);
+                nextId = Math.max(1, lastId - User.ID_ALLOCATION_SIZE + 1);
+            }
+            batch.add(new Object[]{
+                    nextId++,
+                    plan.emailPrefix() + "." + index + "@example.com",
+                    firstNames[random.nextInt(NAME_POOL_SIZE)],
+                    lastNames[random.nextInt(NAME_POOL_SIZE)],
+                    plan.distribution().sample(random, plan.earliest(), plan.latest()),
+                    addresses[random.nextInt(NAME_POOL_SIZE)],
+                    "555-" + (1_000_000 + random.nextInt(9_000_000))
+            });
+            if (batch.size() == plan.batchSize() || index == to - 1) {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch));
+                long done = inserted.addAndGet(batch.size());
+                if (done / PROGRESS_INTERVAL != (done - batch.size()) / PROGRESS_INTERVAL) {
+                    log.info("Generated {} of {} users", done, plan.count());
+                }
+                batch.clear();
+            }
+        }
     }
 
-    private void generateUsers() {
-        Faker faker = new Faker();
-        for (int i = 0; i < 40; i++) {
-            User user = new User();
-            user.setFirstName(faker.name().firstName());
-            user.setLastName(faker.name().lastName());
-            user.setEmail(faker.internet().emailAddress());
-            user.setPhoneNumber(faker.phoneNumber().phoneNumber());
-            user.setBirthDate(LocalDate.ofInstant(faker.date().birthday(18, 65).toInstant(), ZoneId.systemDefault()));
-            userRepository.save(user);
-        }
-        log.info("Generated 40 users successfully.");
+    private record Plan(long count, int batchSize, BirthDateDistribution distribution,
+                        LocalDate earliest, LocalDate latest, String emailPrefix) {
     }
 }
@@ -0,0 +1,95 @@
+package org.example.projecttestassignment.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.exception.ConflictException;
+import org.example.projecttestassignment.ratelimit.ThrottlingFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<Key, Entry> entries;
+    private final String clientHeader;
+
+    public IdempotencyStore(@Value("${user.idempotency.enabled}") boolean enabled,
+                            @Value("${user.idempotency.maximum-size}") long maximumSize,
+                            @Value("${user.idempotency.ttl}") Duration ttl,
+                            @Value("${user.rate-limit.client-header:}") String clientHeader) {
+        this.clientHeader = clientHeader;
+        if (enabled) {
+            log.info("Creating idempotency store with maximum size {} and ttl {}", maximumSize, ttl);
+            entries = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(ttl)
+                    .build();
+        } else {
+            log.info("Idempotency store is disabled");
+            entries = null;
+        }
+    }
+
+    // Runs the action once per client and key and replays its response for later requests from that client with
+    // the same key. Clients are identified as for rate limiting, so two clients never share a key.
+    // Failed actions are not remembered, so a retry after an error executes again.
+    public <T> ResponseEntity<T> execute(HttpServletRequest httpRequest, String key, Object request,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (entries == null || key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        Entry entry = new Entry(request, new CompletableFuture<>());
+        Key entryKey = new Key(ThrottlingFilter.clientId(httpRequest, clientHeader), key);
+        Entry existing = entries.asMap().putIfAbsent(entryKey, entry);
+        if (existing != null) {
+            return replay(key, existing, request);
+        }
+        try {
+            ResponseEntity<T> response = action.get();
+            entry.response().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            entries.asMap().remove(entryKey, entry);
+            entry.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> replay(String key, Entry existing, Object request) {
+        if (!existing.request().equals(request)) {
+            throw new IllegalArgumentException(HEADER + " " + key + " was already used for a different request");
+        }
+        CompletableFuture<ResponseEntity<?>> pending = existing.response();
+        ResponseEntity<T> response = pending.isCompletedExceptionally() ? null : (ResponseEntity<T>) pending.getNow(null);
+        if (response == null) {
+            throw new ConflictException("A request with " + HEADER + " " + key + " is still in progress");
+        }
+        log.debug("Replaying response for {} {}", HEADER, key);
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+
+    private record Key(String client, String key) {
+    }
+
+    private record Entry(Object request, CompletableFuture<ResponseEntity<?>> response) {
+    }
+}
@@ -0,0 +1,280 @@
+package org.example.projecttestassignment.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.repository.UserBirthDate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@Slf4j
+@Component
+public class BirthDateIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final boolean enabled;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Runnable> pending = new ArrayList<>();
+
+    private int[] days = new int[0];
+    private long[] ids = new long[0];
+    private long[] sortedIds = new long[0];
+    private int[] daysById = new int[0];
+    private int size;
+    private boolean loading;
+    private volatile boolean warm;
+
+    public BirthDateIndex(@Value("${user.index.enabled}") boolean enabled) {
+        this.enabled = enabled;
+        log.info("Birth date index is {}", enabled ? "enabled" : "disabled");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void load(Supplier<Stream<UserBirthDate>> source) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            loading = true;
+            warm = false;
+            pending.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long started = System.nanoTime();
+        try {
+            int count = 0;
+            int[] loadedDays = new int[INITIAL_CAPACITY];
+            long[] loadedIds = new long[INITIAL_CAPACITY];
+            try (Stream<UserBirthDate> rows = source.get()) {
+                for (UserBirthDate row : (Iterable<UserBirthDate>) rows::iterator) {
+                    if (row.getBirthDate() == null) {
+                        continue;
+                    }
+                    if (count == loadedDays.length) {
+                        loadedDays = Arrays.copyOf(loadedDays, count * 2);
+                        loadedIds = Arrays.copyOf(loadedIds, count * 2);
+                    }
+                    loadedDays[count] = toDay(row.getBirthDate());
+                    loadedIds[count] = row.getId();
+                    count++;
+                }
+            }
+            long[] loadedSortedIds = Arrays.copyOf(loadedIds, loadedIds.length);
+            Arrays.sort(loadedSortedIds, 0, count);
+            int[] loadedDaysById = new int[loadedDays.length];
+            for (int i = 0; i < count; i++) {
+                loadedDaysById[Arrays.binarySearch(loadedSortedIds, 0, count, loadedIds[i])] = loadedDays[i];
+            }
+            lock.writeLock().lock();
+            try {
+                days = loadedDays;
+                ids = loadedIds;
+                sortedIds = loadedSortedIds;
+                daysById = loadedDaysById;
+                size = count;
+                pending.forEach(Runnable::run);
+                log.info("Loaded birth date index with {} users ({} writes replayed) in {} ms",
+                        count, pending.size(), (System.nanoTime() - started) / 1_000_000);
+                pending.clear();
+                loading = false;
+                warm = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending.clear();
+                loading = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.warn("Failed to load birth date index, searches will use the database", e);
+        }
+    }
+
+    public void put(Long id, LocalDate birthDate) {
+        if (birthDate == null) {
+            remove(id);
+            return;
+        }
+        int day = toDay(birthDate);
+        apply(() -> doPut(id, day));
+    }
+
+    public void remove(Long id) {
+        apply(() -> doRemove(id));
+    }
+
+    public void removeRange(LocalDate from, LocalDate to) {
+        int fromDay = toDay(from);
+        int toDay = toDay(to);
+        apply(() -> doRemoveRange(fromDay, toDay));
+    }
+
+    public long[] find(LocalDate from, LocalDate to, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            int start = lowerBound(toDay(from), Long.MIN_VALUE);
+            int end = lowerBound(toDay(to) + 1, Long.MIN_VALUE);
+            return slice(start + offset, end, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] findAfter(LocalDate from, LocalDate to, LocalDate lastBirthDate, long lastId, int limit) {
+        lock.readLock().lock();
+        try {
+            int start = Math.max(lowerBound(toDay(from), Long.MIN_VALUE), lowerBound(toDay(lastBirthDate), lastId + 1));
+            int end = lowerBound(toDay(to) + 1, Long.MIN_VALUE);
+            return slice(start, end, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] slice(long start, int end, int limit) {
+        int from = (int) Math.min(start, end);
+        int to = (int) Math.min(end, from + (long) limit);
+        return Arrays.copyOfRange(ids, from, to);
+    }
+
+    private void apply(Runnable write) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                pending.add(write);
+            } else if (warm) {
+                write.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void doPut(long id, int day) {
+        int at = Arrays.binarySearch(sortedIds, 0, size, id);
+        if (at >= 0) {
+            int previousDay = daysById[at];
+            if (previousDay == day) {
+                return;
+            }
+            removeFromDays(lowerBound(previousDay, id), size);
+            insertIntoDays(lowerBound(day, id, size - 1), day, id, size - 1);
+            daysById[at] = day;
+            return;
+        }
+        ensureCapacity(size + 1);
+        int insertAt = -at - 1;
+        System.arraycopy(sortedIds, insertAt, sortedIds, insertAt + 1, size - insertAt);
+        System.arraycopy(daysById, insertAt, daysById, insertAt + 1, size - insertAt);
+        sortedIds[insertAt] = id;
+        daysById[insertAt] = day;
+        insertIntoDays(lowerBound(day, id), day, id, size);
+        size++;
+    }
+
+    private void doRemove(long id) {
+        int at = Arrays.binarySearch(sortedIds, 0, size, id);
+        if (at < 0) {
+            return;
+        }
+        removeFromDays(lowerBound(daysById[at], id), size);
+        System.arraycopy(sortedIds, at + 1, sortedIds, at, size - at - 1);
+        System.arraycopy(daysById, at + 1, daysById, at, size - at - 1);
+        size--;
+    }
+
+    private void doRemoveRange(int fromDay, int toDay) {
+        int start = lowerBound(fromDay, Long.MIN_VALUE);
+        int end = lowerBound(toDay + 1, Long.MIN_VALUE);
+        if (start >= end) {
+            return;
+        }
+        System.arraycopy(days, end, days, start, size - end);
+        System.arraycopy(ids, end, ids, start, size - end);
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (daysById[i] < fromDay || daysById[i] > toDay) {
+                sortedIds[kept] = sortedIds[i];
+                daysById[kept] = daysById[i];
+                kept++;
+            }
+        }
+        size = kept;
+    }
+
+    private void insertIntoDays(int at, int day, long id, int count) {
+        System.arraycopy(days, at, days, at + 1, count - at);
+        System.arraycopy(ids, at, ids, at + 1, count - at);
+        days[at] = day;
+        ids[at] = id;
+    }
+
+    private void removeFromDays(int at, int count) {
+        System.arraycopy(days, at + 1, days, at, count - at - 1);
+        System.arraycopy(ids, at + 1, ids, at, count - at - 1);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= days.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, Math.max(INITIAL_CAPACITY, days.length * 2));
+        days = Arrays.copyOf(days, newCapacity);
+        ids = Arrays.copyOf(ids, newCapacity);
+        sortedIds = Arrays.copyOf(sortedIds, newCapacity);
+        daysById = Arrays.copyOf(daysById, newCapacity);
+    }
+
+    private int lowerBound(int day, long id) {
+        return lowerBound(day, id, size);
+    }
+
+    private int lowerBound(int day, long id, int count) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days[mid] < day || (days[mid] == day && ids[mid] < id)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int toDay(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.projecttestassignment.index;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.model.User;
+import org.example.projecttestassignment.model.UserChange;
+import org.example.projecttestassignment.model.UserChangeType;
+import org.example.projecttestassignment.repository.UserChangeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+
+// Applies the published change feed to this node's index, so writes made on other nodes reach it too.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = {"user.index.enabled", "user.changes.enabled"}, havingValue = "true")
+public class BirthDateIndexFeed {
+
+    private final int batchSize;
+    private final BirthDateIndex birthDateIndex;
+    private final UserChangeRepository userChangeRepository;
+    private final ObjectMapper objectMapper;
+    // Last applied position; negative until the index is loaded.
+    private long position = -1;
+
+    public BirthDateIndexFeed(@Value("${user.changes.relay.batch-size}") int batchSize,
+                              BirthDateIndex birthDateIndex,
+                              UserChangeRepository userChangeRepository,
+                              ObjectMapper objectMapper) {
+        this.batchSize = batchSize;
+        this.birthDateIndex = birthDateIndex;
+        this.userChangeRepository = userChangeRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // Called before each load. Changes published while the snapshot is read are applied again on top of it,
+    // which is harmless because puts and removes are idempotent and the feed is in commit order per user.
+    public synchronized void start() {
+        Long latest = userChangeRepository.findMaxPosition();
+        position = latest == null ? 0 : latest;
+    }
+
+    @Scheduled(fixedDelayString = "${user.changes.relay.interval}")
+    public synchronized void follow() {
+        if (position < 0) {
+            return;
+        }
+        List<UserChange> batch;
+        do {
+            batch = userChangeRepository.findByPositionGreaterThanOrderByPosition(position, Limit.of(batchSize));
+            if (!batch.isEmpty() && position > 0 && batch.get(0).getPosition() > position + 1) {
+                log.warn("Birth date index missed user changes after position {}, it may be stale until reloaded", position);
+            }
+            for (UserChange change : batch) {
+                apply(change);
+                position = change.getPosition();
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private void apply(UserChange change) {
+        if (change.getType() == UserChangeType.DELETED) {
+            birthDateIndex.remove(change.getUserId());
+        } else {
+            birthDateIndex.put(change.getUserId(), birthDate(change));
+        }
+    }
+
+    private LocalDate birthDate(UserChange change) {
+        try {
+            return objectMapper.readValue(change.getPayload(), User.class).getBirthDate();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
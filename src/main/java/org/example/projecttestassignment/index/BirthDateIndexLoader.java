@@ -0,0 +1,28 @@
+package org.example.projecttestassignment.index;
+
+import lombok.RequiredArgsConstructor;
+import org.example.projecttestassignment.repository.UserRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+public class BirthDateIndexLoader {
+
+    private final BirthDateIndex birthDateIndex;
+    private final UserRepository userRepository;
+    private final Optional<BirthDateIndexFeed> birthDateIndexFeed;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        if (birthDateIndex.isEnabled()) {
+            birthDateIndexFeed.ifPresent(BirthDateIndexFeed::start);
+            birthDateIndex.load(userRepository::streamIdAndBirthDate);
+        }
+    }
+}
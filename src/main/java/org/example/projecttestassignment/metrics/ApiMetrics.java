@@ -0,0 +1,36 @@
+package org.example.projecttestassignment.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+public class ApiMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, Counter> errorCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejectionCounters = new ConcurrentHashMap<>();
+
+    public void recordError(Throwable error) {
+        Counter counter = errorCounters.get(error.getClass());
+        if (counter == null) {
+            counter = errorCounters.computeIfAbsent(error.getClass(), type -> Counter.builder("user.api.errors")
+                    .description("Errors turned into responses by the API exception handlers")
+                    .tag("exception", type.getSimpleName())
+                    .register(meterRegistry));
+        }
+        counter.increment();
+    }
+
+    public void recordRejection(String reason) {
+        rejectionCounters.computeIfAbsent(reason, key -> Counter.builder("user.api.rejected")
+                .description("Requests turned away by rate limiting or load shedding")
+                .tag("reason", key)
+                .register(meterRegistry)).increment();
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.projecttestassignment.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 import jakarta.validation.constraints.Email;
@@ -9,15 +10,20 @@ import lombok.*;
 import java.time.LocalDate;
 
 @Data
+@ToString(onlyExplicitlyIncluded = true)
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_birth_date_id", columnList = "birthDate, id"))
 public class User {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue
+    @ToString.Include
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     @Column(unique = true, nullable = false, length = 100)
     @Email
@@ -32,5 +38,8 @@ public class User {
     private String address;
     @Column(length = 100)
     private String phoneNumber;
+    @Version
+    @JsonIgnore
+    private Long version;
 
 }
@@ -0,0 +1,37 @@
+package org.example.projecttestassignment.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "user_changes", indexes = @Index(name = "idx_user_changes_position", columnList = "position", unique = true))
+public class UserChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_changes_seq")
+    @SequenceGenerator(name = "user_changes_seq", sequenceName = "user_changes_seq", allocationSize = User.ID_ALLOCATION_SIZE)
+    private Long id;
+    @Column(nullable = false)
+    private Long userId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private UserChangeType type;
+    @Column(length = 1000)
+    private String payload;
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    // Assigned by the relay in publish order; null until the change is published. Only written by the relay's
+    // conditional update, never by flushing the entity.
+    @Column(updatable = false)
+    private Long position;
+    // Drawn from a database sequence by the insert itself, after the user row has been written and locked, so changes
+    // to one user are published in commit order. Ids come from pooled blocks handed out per node and are not ordered.
+    @Column(columnDefinition = "bigserial", insertable = false, updatable = false)
+    private Long insertOrder;
+}
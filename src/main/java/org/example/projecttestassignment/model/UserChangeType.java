@@ -0,0 +1,7 @@
+package org.example.projecttestassignment.model;
+
+public enum UserChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,128 @@
+package org.example.projecttestassignment.ratelimit;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+@Component
+public class LoadShedder {
+
+    private static final long CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final boolean enabled;
+    private final int maxInFlight;
+    private final int maxPendingConnections;
+    private final double maxPoolWaitMillis;
+    private final ObjectProvider<DataSource> dataSource;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong lastCheck = new AtomicLong(System.nanoTime());
+    private final AtomicReference<AcquireSample> lastAcquire = new AtomicReference<>(new AcquireSample(0, 0));
+    private volatile boolean poolSaturated;
+
+    public LoadShedder(@Value("${user.load-shedding.enabled}") boolean enabled,
+                       @Value("${user.load-shedding.max-in-flight}") int maxInFlight,
+                       @Value("${user.load-shedding.max-pending-connections}") int maxPendingConnections,
+                       @Value("${user.load-shedding.max-pool-wait}") Duration maxPoolWait,
+                       ObjectProvider<DataSource> dataSource,
+                       MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxInFlight = maxInFlight;
+        this.maxPendingConnections = maxPendingConnections;
+        this.maxPoolWaitMillis = maxPoolWait.toMillis();
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+        if (enabled) {
+            log.info("Shedding load above {} in-flight requests, {} waiting connections or {} pool wait",
+                    maxInFlight, maxPendingConnections, maxPoolWait);
+        }
+    }
+
+    public boolean tryEnter() {
+        if (!enabled) {
+            return true;
+        }
+        if (isPoolSaturated()) {
+            return false;
+        }
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void exit() {
+        if (enabled) {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private boolean isPoolSaturated() {
+        long now = System.nanoTime();
+        long last = lastCheck.get();
+        if (now - last >= CHECK_INTERVAL_NANOS && lastCheck.compareAndSet(last, now)) {
+            boolean saturated = checkPool();
+            if (saturated != poolSaturated) {
+                log.warn(saturated ? "Connection pool saturated, shedding load" : "Connection pool recovered");
+            }
+            poolSaturated = saturated;
+        }
+        return poolSaturated;
+    }
+
+    private boolean checkPool() {
+        HikariDataSource hikari = hikari(dataSource.getIfAvailable());
+        if (hikari != null) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            if (pool != null && pool.getThreadsAwaitingConnection() > maxPendingConnections) {
+                return true;
+            }
+        }
+        Timer acquire = hikari == null
+                ? meterRegistry.find("hikaricp.connections.acquire").timer()
+                : meterRegistry.find("hikaricp.connections.acquire").tag("pool", hikari.getPoolName()).timer();
+        if (acquire == null) {
+            return false;
+        }
+        // The total and the count are swapped as one snapshot, so the deltas always come from a
+        // consistent pair even when a slow check overlaps the next one on another thread.
+        AcquireSample current = new AcquireSample(acquire.totalTime(TimeUnit.MILLISECONDS), acquire.count());
+        AcquireSample previous = lastAcquire.getAndSet(current);
+        long acquired = current.count() - previous.count();
+        return acquired > 0 && (current.totalMillis() - previous.totalMillis()) / acquired > maxPoolWaitMillis;
+    }
+
+    // With replica routing the DataSource bean is a proxy; shedding is decided on the primary pool.
+    private static HikariDataSource hikari(DataSource dataSource) {
+        try {
+            return dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)
+                    ? dataSource.unwrap(HikariDataSource.class)
+                    : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private record AcquireSample(double totalMillis, long count) {
+    }
+}
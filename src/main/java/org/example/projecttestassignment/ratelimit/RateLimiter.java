@@ -0,0 +1,84 @@
+package org.example.projecttestassignment.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class RateLimiter {
+
+    private final Budget reads;
+    private final Budget writes;
+
+    public RateLimiter(@Value("${user.rate-limit.enabled}") boolean enabled,
+                       @Value("${user.rate-limit.read.capacity}") long readCapacity,
+                       @Value("${user.rate-limit.read.per-second}") double readPerSecond,
+                       @Value("${user.rate-limit.write.capacity}") long writeCapacity,
+                       @Value("${user.rate-limit.write.per-second}") double writePerSecond,
+                       @Value("${user.rate-limit.max-clients}") long maxClients) {
+        if (enabled) {
+            log.info("Rate limiting reads to {}/s (burst {}) and writes to {}/s (burst {}) per client",
+                    readPerSecond, readCapacity, writePerSecond, writeCapacity);
+            reads = new Budget(readCapacity, readPerSecond, maxClients);
+            writes = new Budget(writeCapacity, writePerSecond, maxClients);
+        } else {
+            log.info("Rate limiting is disabled");
+            reads = null;
+            writes = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return reads != null;
+    }
+
+    // Returns 0 when a token was taken, otherwise the nanoseconds until the next one is available.
+    public long tryAcquire(String client, boolean write) {
+        Budget budget = write ? writes : reads;
+        return budget == null ? 0 : budget.tryAcquire(client, System.nanoTime());
+    }
+
+    // Token bucket kept as a single "theoretical arrival time" per client (GCRA), so taking a
+    // token is one CAS instead of a lock around a token count and a refill timestamp.
+    static final class Budget {
+
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final Cache<String, AtomicLong> buckets;
+
+        Budget(long capacity, double perSecond, long maxClients) {
+            if (capacity < 1 || perSecond <= 0) {
+                throw new IllegalArgumentException("Rate limit capacity and rate must be positive");
+            }
+            intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / perSecond));
+            toleranceNanos = intervalNanos * (capacity - 1);
+            // An idle bucket is full again after this long, so dropping it loses nothing.
+            buckets = Caffeine.newBuilder()
+                    .maximumSize(maxClients)
+                    .expireAfterAccess(Duration.ofNanos(toleranceNanos + intervalNanos).plusSeconds(1))
+                    .build();
+        }
+
+        long tryAcquire(String client, long now) {
+            AtomicLong arrival = buckets.get(client, key -> new AtomicLong(now));
+            while (true) {
+                long previous = arrival.get();
+                long start = Math.max(previous, now);
+                long wait = start - now - toleranceNanos;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (arrival.compareAndSet(previous, start + intervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
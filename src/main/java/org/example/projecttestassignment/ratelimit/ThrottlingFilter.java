@@ -0,0 +1,103 @@
+package org.example.projecttestassignment.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.exception.error.ApiError;
+import org.example.projecttestassignment.metrics.ApiMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class ThrottlingFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final LoadShedder loadShedder;
+    private final ApiMetrics apiMetrics;
+    private final ObjectMapper objectMapper;
+    private final String clientHeader;
+    private final long shedRetryAfterSeconds;
+
+    public ThrottlingFilter(RateLimiter rateLimiter,
+                            LoadShedder loadShedder,
+                            ApiMetrics apiMetrics,
+                            ObjectMapper objectMapper,
+                            @Value("${user.rate-limit.client-header:}") String clientHeader,
+                            @Value("${user.load-shedding.retry-after}") Duration shedRetryAfter) {
+        this.rateLimiter = rateLimiter;
+        this.loadShedder = loadShedder;
+        this.apiMetrics = apiMetrics;
+        this.objectMapper = objectMapper;
+        this.clientHeader = clientHeader;
+        this.shedRetryAfterSeconds = Math.max(1, shedRetryAfter.toSeconds());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/users");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = clientId(request, clientHeader);
+        long waitNanos = rateLimiter.tryAcquire(client, isWrite(request));
+        if (waitNanos > 0) {
+            log.debug("Rate limit exceeded for client {}", client);
+            apiMetrics.recordRejection("rate_limit");
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, ceilSeconds(waitNanos), "Rate limit exceeded");
+            return;
+        }
+        if (!loadShedder.tryEnter()) {
+            apiMetrics.recordRejection("overload");
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, shedRetryAfterSeconds, "Server is overloaded");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            loadShedder.exit();
+        }
+    }
+
+    public static String clientId(HttpServletRequest request, String clientHeader) {
+        if (!clientHeader.isEmpty()) {
+            String id = request.getHeader(clientHeader);
+            if (id != null && !id.isBlank()) {
+                return id;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    public static boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method));
+    }
+
+    private static long ceilSeconds(long nanos) {
+        return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        ApiError apiError = new ApiError(status, message, List.of("Retry after " + retryAfterSeconds + "s"));
+        objectMapper.writeValue(response.getOutputStream(), apiError);
+    }
+}
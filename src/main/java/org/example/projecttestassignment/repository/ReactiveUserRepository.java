@@ -0,0 +1,167 @@
+package org.example.projecttestassignment.repository;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.model.User;
+import org.example.projecttestassignment.model.UserChange;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+// The pool is deliberately not a ConnectionFactory bean: Boot would then run the SQL init scripts
+// through R2DBC instead of the JDBC DataSource that Hibernate creates the schema with.
+@Slf4j
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserRepository implements DisposableBean {
+
+    private static final String COLUMNS = "id, email, first_name, last_name, birth_date, address, phone_number, version";
+
+    private final ConnectionPool pool;
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final int fetchSize;
+
+    public ReactiveUserRepository(@Value("${user.reactive.url}") String url,
+                                  @Value("${user.reactive.username}") String username,
+                                  @Value("${user.reactive.password}") String password,
+                                  @Value("${user.reactive.pool-size}") int poolSize,
+                                  @Value("${user.reactive.fetch-size}") int fetchSize) {
+        log.info("Creating R2DBC connection pool of {} for {}", poolSize, url);
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(Math.min(2, poolSize))
+                .maxSize(poolSize)
+                .build());
+        this.databaseClient = DatabaseClient.create(pool);
+        this.transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(pool));
+        this.fetchSize = fetchSize;
+    }
+
+    public Mono<User> findById(Long id) {
+        return databaseClient.sql("select " + COLUMNS + " from users where id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::toUser)
+                .one();
+    }
+
+    public Mono<Boolean> existsByEmail(String email) {
+        return databaseClient.sql("select 1 from users where email = :email limit 1")
+                .bind("email", email)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    public Mono<Boolean> existsById(Long id) {
+        return databaseClient.sql("select 1 from users where id = :id")
+                .bind("id", id)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    // The id is the value nextval returns. The JPA side allocates the 50 ids below each value it
+    // draws from the sequence, so the two never hand out the same id.
+    public Mono<User> insert(User user) {
+        return bindValues(databaseClient.sql("insert into users (" + COLUMNS + ") values (nextval('users_seq'), "
+                        + ":email, :firstName, :lastName, :birthDate, :address, :phoneNumber, 0) returning " + COLUMNS), user)
+                .map(ReactiveUserRepository::toUser)
+                .one();
+    }
+
+    public Mono<User> update(Long id, User values, boolean partial, Long expectedVersion) {
+        String assignments = partial
+                ? "email = coalesce(:email, email), first_name = coalesce(:firstName, first_name), "
+                + "last_name = coalesce(:lastName, last_name), birth_date = coalesce(:birthDate, birth_date), "
+                + "address = coalesce(:address, address), phone_number = coalesce(:phoneNumber, phone_number)"
+                : "email = :email, first_name = :firstName, last_name = :lastName, birth_date = :birthDate, "
+                + "address = :address, phone_number = :phoneNumber";
+        String sql = "update users set " + assignments + ", version = version + 1 where id = :id"
+                + (expectedVersion == null ? "" : " and version = :version") + " returning " + COLUMNS;
+        DatabaseClient.GenericExecuteSpec spec = bindValues(databaseClient.sql(sql), values).bind("id", id);
+        if (expectedVersion != null) {
+            spec = spec.bind("version", expectedVersion);
+        }
+        return spec.map(ReactiveUserRepository::toUser).one();
+    }
+
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql("delete from users where id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // Same id scheme as users_seq above. insert_order and position are left to the database and the relay.
+    public Mono<Void> insertChange(UserChange change) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("insert into user_changes "
+                        + "(id, user_id, type, payload, created_at) values "
+                        + "(nextval('user_changes_seq'), :userId, :type, :payload, :createdAt)")
+                .bind("userId", change.getUserId())
+                .bind("type", change.getType().name())
+                .bind("createdAt", change.getCreatedAt());
+        return bind(spec, "payload", change.getPayload(), String.class).then();
+    }
+
+    // Statements issued through this repository inside the returned publisher share one connection and commit together.
+    public <T> Mono<T> inTransaction(Mono<T> writes) {
+        return transactionalOperator.transactional(writes);
+    }
+
+    // Rows are pulled from the server in fetch-size chunks as the subscriber requests them.
+    public Flux<User> findByBirthDateBetween(LocalDate from, LocalDate to) {
+        return databaseClient.sql("select " + COLUMNS + " from users where birth_date between :from and :to "
+                        + "order by birth_date, id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .bind("from", from)
+                .bind("to", to)
+                .map(ReactiveUserRepository::toUser)
+                .all();
+    }
+
+    @Override
+    public void destroy() {
+        pool.dispose();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindValues(DatabaseClient.GenericExecuteSpec spec, User user) {
+        spec = bind(spec, "email", user.getEmail(), String.class);
+        spec = bind(spec, "firstName", user.getFirstName(), String.class);
+        spec = bind(spec, "lastName", user.getLastName(), String.class);
+        spec = bind(spec, "birthDate", user.getBirthDate(), LocalDate.class);
+        spec = bind(spec, "address", user.getAddress(), String.class);
+        return bind(spec, "phoneNumber", user.getPhoneNumber(), String.class);
+    }
+
+    private static <T> DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                              T value, Class<T> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private static User toUser(Readable row) {
+        return new User(row.get("id", Long.class),
+                row.get("email", String.class),
+                row.get("first_name", String.class),
+                row.get("last_name", String.class),
+                row.get("birth_date", LocalDate.class),
+                row.get("address", String.class),
+                row.get("phone_number", String.class),
+                row.get("version", Long.class));
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.projecttestassignment.repository;
+
+import java.time.LocalDate;
+
+public interface UserBirthDate {
+    Long getId();
+
+    LocalDate getBirthDate();
+}
@@ -0,0 +1,38 @@
+package org.example.projecttestassignment.repository;
+
+import org.example.projecttestassignment.model.UserChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UserChangeRepository extends JpaRepository<UserChange, Long> {
+
+    List<UserChange> findByPositionIsNullOrderByInsertOrder(Limit limit);
+
+    List<UserChange> findByPositionGreaterThanOrderByPosition(long position, Limit limit);
+
+    @Query("select max(c.position) from UserChange c")
+    Long findMaxPosition();
+
+    @Query("select min(c.position) from UserChange c where c.createdAt >= :since")
+    Long findMinPositionSince(@Param("since") LocalDateTime since);
+
+    // Conditional, so a relay that selected its batch before another relay published it updates nothing.
+    @Modifying
+    @Transactional
+    @Query("update UserChange c set c.position = :position where c.id = :id and c.position is null")
+    int assignPosition(@Param("id") long id, @Param("position") long position);
+
+    @Modifying
+    @Transactional
+    @Query("delete from UserChange c where c.position < :position")
+    int deleteByPositionBefore(@Param("position") long position);
+}
@@ -1,15 +1,69 @@
 package org.example.projecttestassignment.repository;
 
 
+import jakarta.persistence.QueryHint;
 import org.example.projecttestassignment.model.User;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    Page<User> findAllByBirthDateBetween(Pageable pageable, LocalDate from, LocalDate to);
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+    Slice<User> findAllBy(Pageable pageable);
+
+    boolean existsByEmail(String email);
+
+    Slice<User> findAllByBirthDateBetween(Pageable pageable, LocalDate from, LocalDate to);
+
+    List<User> findAllByBirthDateBetweenOrderByBirthDateAscIdAsc(LocalDate from, LocalDate to, Limit limit);
+
+    @Query("select u from User u where u.birthDate between :from and :to " +
+            "and (u.birthDate, u.id) > (:lastBirthDate, :lastId) " +
+            "order by u.birthDate, u.id")
+    List<User> findAllByBirthDateBetweenAfter(@Param("from") LocalDate from,
+                                              @Param("to") LocalDate to,
+                                              @Param("lastBirthDate") LocalDate lastBirthDate,
+                                              @Param("lastId") Long lastId,
+                                              Limit limit);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select u.id as id, u.birthDate as birthDate from User u order by u.birthDate, u.id")
+    Stream<UserBirthDate> streamIdAndBirthDate();
+
+    @Query(value = "select u.* from users u " +
+            "where u.birth_date between :from and :to " +
+            "and (lower(u.first_name) like :pattern or lower(u.last_name) like :pattern " +
+            "or lower(u.email) like :pattern or u.phone_number like :pattern) " +
+            "order by case when lower(u.first_name) like :prefix or lower(u.last_name) like :prefix " +
+            "or lower(u.email) like :prefix then 0 else 1 end, " +
+            "greatest(similarity(lower(u.first_name), :text), similarity(lower(u.last_name), :text), " +
+            "similarity(lower(u.email), :text)) desc, u.id " +
+            "limit :limit offset :offset", nativeQuery = true)
+    List<User> searchByText(@Param("text") String text,
+                            @Param("pattern") String pattern,
+                            @Param("prefix") String prefix,
+                            @Param("from") LocalDate from,
+                            @Param("to") LocalDate to,
+                            @Param("limit") int limit,
+                            @Param("offset") long offset);
+
+    @Modifying
+    @Transactional
+    @Query("delete from User u where u.id = :id")
+    int deleteUserById(@Param("id") Long id);
+
 }
@@ -0,0 +1,25 @@
+package org.example.projecttestassignment.repository;
+
+import org.example.projecttestassignment.dto.UserField;
+import org.example.projecttestassignment.model.User;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface UserRepositoryCustom {
+
+    Optional<User> updateReturning(Long id, User values, boolean partial, Long expectedVersion);
+
+    List<Long> deleteByIdsReturning(Collection<Long> ids);
+
+    List<Long> deleteByBirthDateBetweenReturning(LocalDate from, LocalDate to);
+
+    List<Map<String, Object>> findFields(List<UserField> fields, LocalDate from, LocalDate to, Pageable pageable);
+
+    Stream<Map<String, Object>> streamFields(List<UserField> fields, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,142 @@
+package org.example.projecttestassignment.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.example.projecttestassignment.dto.UserField;
+import org.example.projecttestassignment.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Value("${user.export.fetch-size}")
+    private int exportFetchSize;
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public Optional<User> updateReturning(Long id, User values, boolean partial, Long expectedVersion) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("email", values.getEmail());
+        columns.put("first_name", values.getFirstName());
+        columns.put("last_name", values.getLastName());
+        columns.put("birth_date", values.getBirthDate());
+        columns.put("address", values.getAddress());
+        columns.put("phone_number", values.getPhoneNumber());
+
+        StringBuilder sql = new StringBuilder("update users set ");
+        columns.forEach((column, value) -> {
+            if (value != null) {
+                sql.append(column).append(" = :").append(column).append(", ");
+            } else if (!partial) {
+                sql.append(column).append(" = null, ");
+            }
+        });
+        sql.append("version = version + 1 where id = :id");
+        if (expectedVersion != null) {
+            sql.append(" and version = :expectedVersion");
+        }
+        sql.append(" returning *");
+
+        Query query = entityManager.createNativeQuery(sql.toString(), User.class);
+        columns.forEach((column, value) -> {
+            if (value != null) {
+                query.setParameter(column, value);
+            }
+        });
+        query.setParameter("id", id);
+        if (expectedVersion != null) {
+            query.setParameter("expectedVersion", expectedVersion);
+        }
+        List<User> updated = query.getResultList();
+        return updated.stream().findFirst();
+    }
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public List<Long> deleteByIdsReturning(Collection<Long> ids) {
+        return entityManager.createNativeQuery("delete from users where id in (:ids) returning id", Long.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public List<Long> deleteByBirthDateBetweenReturning(LocalDate from, LocalDate to) {
+        return entityManager.createNativeQuery("delete from users where birth_date between :from and :to returning id", Long.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findFields(List<UserField> fields, LocalDate from, LocalDate to, Pageable pageable) {
+        TypedQuery<Tuple> query = fieldsQuery(fields, from, to, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult(Math.toIntExact(pageable.getOffset()));
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query.getResultList().stream().map(tuple -> toRow(fields, tuple)).toList();
+    }
+
+    @Override
+    public Stream<Map<String, Object>> streamFields(List<UserField> fields, LocalDate from, LocalDate to) {
+        return fieldsQuery(fields, from, to, Sort.unsorted())
+                .setHint(HINT_FETCH_SIZE, exportFetchSize)
+                .getResultStream()
+                .map(tuple -> toRow(fields, tuple));
+    }
+
+    private TypedQuery<Tuple> fieldsQuery(List<UserField> fields, LocalDate from, LocalDate to, Sort sort) {
+        boolean ranged = from != null && to != null;
+        String jpql = "select " + fields.stream().map(field -> "u." + field.getAttribute()).collect(Collectors.joining(", "))
+                + " from User u"
+                + (ranged ? " where u.birthDate between :from and :to" : "")
+                + " order by " + orderBy(sort);
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql, Tuple.class);
+        if (ranged) {
+            query.setParameter("from", from);
+            query.setParameter("to", to);
+        }
+        return query;
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "u.birthDate, u.id";
+        }
+        String orders = sort.stream()
+                .map(order -> "u." + UserField.of(order.getProperty()).getAttribute() + (order.isAscending() ? " asc" : " desc"))
+                .collect(Collectors.joining(", "));
+        return sort.getOrderFor("id") == null ? orders + ", u.id" : orders;
+    }
+
+    private static Map<String, Object> toRow(List<UserField> fields, Tuple tuple) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            row.put(fields.get(i).getAttribute(), tuple.get(i));
+        }
+        return row;
+    }
+}
@@ -0,0 +1,169 @@
+package org.example.projecttestassignment.services.Impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.cache.MissingUserCache;
+import org.example.projecttestassignment.changes.UserChangeOutbox;
+import org.example.projecttestassignment.config.CacheConfig;
+import org.example.projecttestassignment.dto.UserRequest;
+import org.example.projecttestassignment.exception.ConflictException;
+import org.example.projecttestassignment.exception.PreconditionFailedException;
+import org.example.projecttestassignment.exception.UserNotFoundException;
+import org.example.projecttestassignment.index.BirthDateIndex;
+import org.example.projecttestassignment.model.User;
+import org.example.projecttestassignment.model.UserChangeType;
+import org.example.projecttestassignment.repository.ReactiveUserRepository;
+import org.example.projecttestassignment.services.ReactiveUserService;
+import org.example.projecttestassignment.services.TimeProvider;
+import org.example.projecttestassignment.services.UserValidation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+
+    private static final LocalDate MIN_BIRTH_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_BIRTH_DATE = LocalDate.of(9999, 12, 31);
+
+    private final ReactiveUserRepository reactiveUserRepository;
+    private final TimeProvider timeProvider;
+    private final UserChangeOutbox userChangeOutbox;
+    private final CacheManager cacheManager;
+    private final MissingUserCache missingUserCache;
+    private final BirthDateIndex birthDateIndex;
+    @Value("${user.min-age}")
+    private Integer MIN_AGE;
+
+    @Override
+    public Mono<User> createUser(UserRequest request) {
+        log.debug("Creating new user");
+        return Mono.fromRunnable(() -> UserValidation.validateNewUser(request, MIN_AGE, timeProvider.currentDate()))
+                .then(Mono.defer(() -> reactiveUserRepository.existsByEmail(request.getEmail())))
+                .flatMap(exists -> exists
+                        ? Mono.error(duplicateEmail(request))
+                        : reactiveUserRepository.inTransaction(reactiveUserRepository.insert(toUser(request))
+                        .flatMap(user -> recordChange(UserChangeType.CREATED, user))))
+                .onErrorMap(DataIntegrityViolationException.class, e -> duplicateEmail(request))
+                .flatMap(this::cacheWritten);
+    }
+
+    @Override
+    public Mono<User> findUserById(Long id) {
+        log.debug("Finding user by id: {}", id);
+        return reactiveUserRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException("User with id " + id + " not found")));
+    }
+
+    @Override
+    public Mono<User> updateUser(Long userId, UserRequest request, Long expectedVersion) {
+        log.debug("Updating user with id: {}", userId);
+        return update(userId, toUser(request), false, expectedVersion,
+                () -> new UserNotFoundException("Користувача з ідентифікатором " + userId + " не знайдено"));
+    }
+
+    @Override
+    public Mono<User> partialUpdateUser(Long userId, UserRequest request, Long expectedVersion) {
+        log.debug("Partially updating user with id: {}", userId);
+        Supplier<RuntimeException> notFound =
+                () -> new IllegalArgumentException("Користувача з ідентифікатором " + userId + " не знайдено");
+        if (!UserValidation.hasChanges(request)) {
+            return reactiveUserRepository.findById(userId)
+                    .switchIfEmpty(Mono.error(notFound))
+                    .doOnNext(user -> UserValidation.checkVersion(user, expectedVersion));
+        }
+        return update(userId, toUser(request), true, expectedVersion, notFound);
+    }
+
+    private Mono<User> update(Long userId, User values, boolean partial, Long expectedVersion,
+                              Supplier<RuntimeException> notFound) {
+        return reactiveUserRepository.inTransaction(reactiveUserRepository.update(userId, values, partial, expectedVersion)
+                        .flatMap(user -> recordChange(UserChangeType.UPDATED, user)))
+                .flatMap(this::cacheWritten)
+                .switchIfEmpty(Mono.defer(() -> expectedVersion == null
+                        ? Mono.error(notFound)
+                        : reactiveUserRepository.existsById(userId).flatMap(exists -> Mono.error(exists
+                        ? new PreconditionFailedException("User with id " + userId + " was modified: expected version "
+                        + expectedVersion)
+                        : notFound.get()))));
+    }
+
+    @Override
+    public Mono<Void> deleteUser(Long userId) {
+        log.debug("Deleting user with id: {}", userId);
+        return reactiveUserRepository.inTransaction(reactiveUserRepository.deleteById(userId)
+                        .flatMap(deleted -> deleted == 0
+                                ? Mono.error(new UserNotFoundException("User with id " + userId + " not found"))
+                                : recordChange(UserChangeType.DELETED, User.builder().id(userId).build())))
+                .then(cacheDeleted(userId));
+    }
+
+    @Override
+    public Flux<User> searchUsers(LocalDate from, LocalDate to) {
+        log.debug("Streaming users with date range: from {} to {}", from, to);
+        LocalDate start = Objects.isNull(from) ? MIN_BIRTH_DATE : from;
+        LocalDate end = Objects.isNull(to) ? MAX_BIRTH_DATE : to;
+        return Mono.fromRunnable(() -> UserValidation.validateDateRange(start, end))
+                .thenMany(reactiveUserRepository.findByBirthDateBetween(start, end));
+    }
+
+    // Joins the transaction the caller opened with inTransaction, so the change commits with the user row.
+    private Mono<User> recordChange(UserChangeType type, User user) {
+        return userChangeOutbox.change(type, user)
+                .map(change -> reactiveUserRepository.insertChange(change).thenReturn(user))
+                .orElseGet(() -> Mono.just(user));
+    }
+
+    // Runs after the commit, like the servlet service's cache annotations and AfterCommit hooks. Through the
+    // two-tier cache the put also invalidates the other nodes; the shared tier may block, hence boundedElastic.
+    private Mono<User> cacheWritten(User user) {
+        return Mono.fromRunnable(() -> {
+                    usersCache().put(user.getId(), user);
+                    missingUserCache.markPresent(user.getId());
+                    birthDateIndex.put(user.getId(), user.getBirthDate());
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .thenReturn(user);
+    }
+
+    private Mono<Void> cacheDeleted(Long userId) {
+        return Mono.<Void>fromRunnable(() -> {
+                    usersCache().evict(userId);
+                    missingUserCache.markMissing(userId);
+                    birthDateIndex.remove(userId);
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Cache usersCache() {
+        return Objects.requireNonNull(cacheManager.getCache(CacheConfig.USERS_CACHE));
+    }
+
+    private static ConflictException duplicateEmail(UserRequest request) {
+        return new ConflictException("User with email " + request.getEmail() + " already exists");
+    }
+
+    private static User toUser(UserRequest request) {
+        return User.builder()
+                .email(request.getEmail())
+                .firstName(request.getFirstName())
+                .lastName(request.getLastName())
+                .birthDate(request.getBirthDate())
+                .address(request.getAddress())
+                .phoneNumber(request.getPhoneNumber())
+                .build();
+    }
+}
@@ -1,23 +1,61 @@
 package org.example.projecttestassignment.services.Impl;
 
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ValidationException;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.projecttestassignment.cache.MissingUserCache;
+import org.example.projecttestassignment.changes.UserChangeOutbox;
+import org.example.projecttestassignment.config.CacheConfig;
+import org.example.projecttestassignment.dto.BatchImportResult;
+import org.example.projecttestassignment.dto.UserField;
 import org.example.projecttestassignment.dto.UserRequest;
+import org.example.projecttestassignment.dto.UserSlice;
+import org.example.projecttestassignment.exception.ConflictException;
+import org.example.projecttestassignment.exception.PreconditionFailedException;
 import org.example.projecttestassignment.exception.UserNotFoundException;
+import org.example.projecttestassignment.index.BirthDateIndex;
 import org.example.projecttestassignment.model.User;
+import org.example.projecttestassignment.model.UserChangeType;
 import org.example.projecttestassignment.repository.UserRepository;
+import org.example.projecttestassignment.services.AfterCommit;
 import org.example.projecttestassignment.services.TimeProvider;
 import org.example.projecttestassignment.services.UserService;
+import org.example.projecttestassignment.services.UserValidation;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.Time;
 import java.time.Clock;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.time.LocalDate.now;
 
@@ -26,26 +64,157 @@ import static java.time.LocalDate.now;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+    private static final int MAX_BULK_DELETE_IDS = 1000;
+    private static final int MAX_SEARCH_QUERY_LENGTH = 100;
+    private static final LocalDate MIN_BIRTH_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_BIRTH_DATE = LocalDate.of(9999, 12, 31);
+
     private final UserRepository userRepository;
     private final TimeProvider timeProvider;
+    private final Validator validator;
+    private final MissingUserCache missingUserCache;
+    private final BirthDateIndex birthDateIndex;
+    private final UserChangeOutbox userChangeOutbox;
+    private final TransactionTemplate transactionTemplate;
     @Value("${user.min-age}")
     private Integer MIN_AGE;
+    @Value("${user.import.batch-size}")
+    private Integer IMPORT_BATCH_SIZE;
+    @Value("${user.update.single-statement}")
+    private boolean SINGLE_STATEMENT_UPDATE;
 
 
     @Override
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.USERS_CACHE, key = "#result.id")
     public User createUser(UserRequest request) {
-        log.info("Creating new user: {}", request);
-        if (request.getEmail()==null ||
-            request.getFirstName()==null||
-            request.getLastName()==null||
-            request.getBirthDate()==null){
-            throw new IllegalArgumentException("\"Не всі обов'язкові поля були вказані");
-        }
-        LocalDate currentDate=timeProvider.currentDate();
-        if (request.getBirthDate().plusYears(MIN_AGE).isAfter(currentDate)){
-            throw new IllegalArgumentException("Користувач повинен бути старше 18 років");
-        }
-        User user = User.builder()
+        log.debug("Creating new user");
+        validateNewUser(request);
+        if (userRepository.existsByEmail(request.getEmail())) {
+            throw new ConflictException("User with email " + request.getEmail() + " already exists");
+        }
+        User savedUser;
+        try {
+            savedUser = userRepository.save(toUser(request));
+            userRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("User with email " + request.getEmail() + " already exists");
+        }
+        created(savedUser);
+        return savedUser;
+    }
+
+    private void created(User user) {
+        userChangeOutbox.record(UserChangeType.CREATED, user);
+        // A lookup of the new id before the commit would still mark it missing, so clear the mark afterwards.
+        AfterCommit.run(() -> missingUserCache.markPresent(user.getId()));
+        AfterCommit.run(() -> birthDateIndex.put(user.getId(), user.getBirthDate()));
+    }
+
+    @Override
+    public BatchImportResult importUsers(Iterator<UserRequest> requests) {
+        log.info("Importing users in batches of {}", IMPORT_BATCH_SIZE);
+        List<BatchImportResult.RowResult> rows = new ArrayList<>();
+        List<User> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        List<Integer> batchRows = new ArrayList<>(IMPORT_BATCH_SIZE);
+        Set<String> emails = new HashSet<>();
+        int row = 0;
+        while (true) {
+            UserRequest request;
+            try {
+                if (!requests.hasNext()) {
+                    break;
+                }
+                request = requests.next();
+            } catch (IllegalArgumentException e) {
+                // The row could not be read but the iterator has moved past it.
+                rows.add(BatchImportResult.RowResult.failed(row++, e.getMessage()));
+                continue;
+            } catch (RuntimeException e) {
+                log.warn("Import stopped at row {}, the rest of the input is unreadable: {}", row, e.getMessage());
+                rows.add(BatchImportResult.RowResult.failed(row++, "Import stopped, unreadable input: " + e.getMessage()));
+                break;
+            }
+            try {
+                validateImportRow(request, emails);
+                batch.add(toUser(request));
+                batchRows.add(row);
+            } catch (IllegalArgumentException e) {
+                rows.add(BatchImportResult.RowResult.failed(row, e.getMessage()));
+            }
+            row++;
+            if (batch.size() >= IMPORT_BATCH_SIZE) {
+                saveBatch(batch, batchRows, rows);
+            }
+        }
+        saveBatch(batch, batchRows, rows);
+        rows.sort(Comparator.comparingInt(BatchImportResult.RowResult::row));
+        int created = (int) rows.stream().filter(r -> r.error() == null).count();
+        log.info("Imported {} of {} users", created, row);
+        return new BatchImportResult(row, created, row - created, rows);
+    }
+
+    private void validateImportRow(UserRequest request, Set<String> emails) {
+        if (request == null) {
+            throw new IllegalArgumentException("Empty row");
+        }
+        Set<ConstraintViolation<UserRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        validateNewUser(request);
+        if (!emails.add(request.getEmail())) {
+            throw new IllegalArgumentException("Duplicate email in batch: " + request.getEmail());
+        }
+    }
+
+    private void saveBatch(List<User> batch, List<Integer> batchRows, List<BatchImportResult.RowResult> rows) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // Each batch commits on its own, together with its change events.
+        try {
+            List<User> saved = transactionTemplate.execute(status -> {
+                List<User> users = userRepository.saveAll(batch);
+                userRepository.flush();
+                users.forEach(this::created);
+                return users;
+            });
+            for (int i = 0; i < saved.size(); i++) {
+                rows.add(BatchImportResult.RowResult.created(batchRows.get(i), saved.get(i).getId()));
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Batch insert of {} users failed, retrying row by row: {}", batch.size(), e.getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                User user = batch.get(i);
+                user.setId(null);
+                try {
+                    User saved = transactionTemplate.execute(status -> {
+                        User one = userRepository.save(user);
+                        userRepository.flush();
+                        created(one);
+                        return one;
+                    });
+                    rows.add(BatchImportResult.RowResult.created(batchRows.get(i), saved.getId()));
+                } catch (DataIntegrityViolationException rowError) {
+                    rows.add(BatchImportResult.RowResult.failed(batchRows.get(i), "User with email " + user.getEmail() + " already exists"));
+                }
+            }
+        }
+        batch.clear();
+        batchRows.clear();
+    }
+
+    private void validateNewUser(UserRequest request) {
+        UserValidation.validateNewUser(request, MIN_AGE, timeProvider.currentDate());
+    }
+
+    private User toUser(UserRequest request) {
+        return User.builder()
                 .email(request.getEmail())
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
@@ -53,64 +222,274 @@ public class UserServiceImpl implements UserService {
                 .address(request.getAddress())
                 .phoneNumber(request.getPhoneNumber())
                 .build();
-        return userRepository.save(user);
     }
 
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "#id", sync = true)
     public User findUserById(Long id) {
-        log.info("Finding user by id: {}", id);
-        return userRepository.findById(id).orElseThrow(()
-                -> new UserNotFoundException("User with id " + id + " not found"));
+        log.debug("Finding user by id: {}", id);
+        if (missingUserCache.isMissing(id)) {
+            throw new UserNotFoundException("User with id " + id + " not found");
+        }
+        // A read-write transaction keeps the load on the primary: the result is cached for every client, and a
+        // lagging replica would cache a user that was just deleted or mark one that was just created missing.
+        Optional<User> user = transactionTemplate.execute(status -> userRepository.findById(id));
+        return user.orElseThrow(() -> {
+            missingUserCache.markMissing(id);
+            return new UserNotFoundException("User with id " + id + " not found");
+        });
     }
 
     @Override
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.USERS_CACHE, key = "#userId")
     public User updateUser(Long userId,UserRequest request) {
-        log.info("Updating user with id {}: {}", userId, request);
+        return updateUser(userId, request, null);
+    }
+
+    @Override
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.USERS_CACHE, key = "#userId")
+    public User updateUser(Long userId, UserRequest request, Long expectedVersion) {
+        log.debug("Updating user with id: {}", userId);
+        if (SINGLE_STATEMENT_UPDATE) {
+            return updateReturning(userId, toUser(request), false, expectedVersion,
+                    () -> new UserNotFoundException("Користувача з ідентифікатором " + userId + " не знайдено"));
+        }
         User existingUser = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("Користувача з ідентифікатором " + userId + " не знайдено"));
+        UserValidation.checkVersion(existingUser, expectedVersion);
         existingUser.setEmail(request.getEmail());
         existingUser.setFirstName(request.getFirstName());
         existingUser.setLastName(request.getLastName());
         existingUser.setBirthDate(request.getBirthDate());
         existingUser.setAddress(request.getAddress());
         existingUser.setPhoneNumber(request.getPhoneNumber());
-        return userRepository.save(existingUser);
+        return indexed(userRepository.save(existingUser));
     }
 
     @Override
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.USERS_CACHE, key = "#userId")
     public User partialUpdateUser(Long userId,UserRequest request) {
-        log.info("Partially updating user with id {}: {}", userId, request);
+        return partialUpdateUser(userId, request, null);
+    }
+
+    @Override
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.USERS_CACHE, key = "#userId")
+    public User partialUpdateUser(Long userId, UserRequest request, Long expectedVersion) {
+        log.debug("Partially updating user with id: {}", userId);
+        if (SINGLE_STATEMENT_UPDATE && UserValidation.hasChanges(request)) {
+            return updateReturning(userId, toUser(request), true, expectedVersion,
+                    () -> new IllegalArgumentException("Користувача з ідентифікатором " + userId + " не знайдено"));
+        }
         User existingUser =userRepository.findById(userId)
                 .orElseThrow(()
                         ->new IllegalArgumentException("Користувача з ідентифікатором " + userId + " не знайдено"));
+        UserValidation.checkVersion(existingUser, expectedVersion);
         if (request.getEmail()!=null)existingUser.setEmail(request.getEmail());
         if (request.getFirstName()!=null) existingUser.setFirstName(request.getFirstName());
         if (request.getLastName()!=null) existingUser.setLastName(request.getLastName());
         if (request.getBirthDate()!=null) existingUser.setBirthDate(request.getBirthDate());
         if (request.getAddress()!=null) existingUser.setAddress(request.getAddress());
         if (request.getPhoneNumber()!=null) existingUser.setPhoneNumber(request.getPhoneNumber());
-        return userRepository.save(existingUser);
+        return indexed(userRepository.save(existingUser));
     }
+    private User updateReturning(Long userId, User values, boolean partial, Long expectedVersion,
+                                 Supplier<RuntimeException> notFound) {
+        return userRepository.updateReturning(userId, values, partial, expectedVersion).map(this::indexed).orElseThrow(() -> {
+            if (expectedVersion != null && userRepository.existsById(userId)) {
+                return new PreconditionFailedException("User with id " + userId + " was modified: expected version "
+                        + expectedVersion);
+            }
+            return notFound.get();
+        });
+    }
+
+    private User indexed(User user) {
+        AfterCommit.run(() -> birthDateIndex.put(user.getId(), user.getBirthDate()));
+        userChangeOutbox.record(UserChangeType.UPDATED, user);
+        return user;
+    }
+
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#userId")
     public void deleteUser(Long userId) {
-        log.info("Deleting user with id: {}", userId);
-        if (!userRepository.existsById(userId)) {
+        log.debug("Deleting user with id: {}", userId);
+        if (missingUserCache.isMissing(userId) || userRepository.deleteUserById(userId) == 0) {
+            missingUserCache.markMissing(userId);
             throw new UserNotFoundException("User with id " + userId + " not found");
         }
-        userRepository.deleteById(userId);
-        log.info("User deleted with id: {}", userId);
+        // Marked after the commit: a rolled back delete must not leave an existing user answering 404.
+        AfterCommit.run(() -> missingUserCache.markMissing(userId));
+        AfterCommit.run(() -> birthDateIndex.remove(userId));
+        userChangeOutbox.recordDeleted(userId);
+        log.debug("User deleted with id: {}", userId);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, allEntries = true)
+    public int deleteUsers(Collection<Long> userIds) {
+        log.info("Deleting {} users by id", userIds.size());
+        if (userIds.isEmpty() || userIds.size() > MAX_BULK_DELETE_IDS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_BULK_DELETE_IDS + " ids must be given");
+        }
+        List<Long> deleted = userRepository.deleteByIdsReturning(userIds);
+        deleted.forEach(userChangeOutbox::recordDeleted);
+        AfterCommit.run(() -> deleted.forEach(missingUserCache::markMissing));
+        AfterCommit.run(() -> deleted.forEach(birthDateIndex::remove));
+        log.info("Deleted {} users", deleted.size());
+        return deleted.size();
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, allEntries = true)
+    public int deleteUsers(LocalDate from, LocalDate to) {
+        log.info("Deleting users with date range: from {} to {}", from, to);
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Invalid date range: 'from' should be before 'to'.");
+        }
+        // The delete returns the removed ids so that each of them gets its change event.
+        List<Long> deleted = userRepository.deleteByBirthDateBetweenReturning(from, to);
+        deleted.forEach(userChangeOutbox::recordDeleted);
+        AfterCommit.run(() -> birthDateIndex.removeRange(from, to));
+        log.info("Deleted {} users", deleted.size());
+        return deleted.size();
     }
     @Override
+    @Transactional(readOnly = true)
     public List<User> searchUsers(Pageable pageable, LocalDate from, LocalDate to) {
-        log.info("Searching users with date range: from {} to {}", from, to);
+        log.debug("Searching users with date range: from {} to {}", from, to);
+        UserValidation.validatePage(pageable);
         if(Objects.isNull(from) || Objects.isNull(to)) {
-            return userRepository.findAll(pageable).getContent();
+            return userRepository.findAllBy(pageable).getContent();
         }
 
-        if(from.isAfter(to)) {
-            throw new ValidationException("Invalid date range: 'from' should be before 'to'.");
+        UserValidation.validateDateRange(from, to);
+        if (birthDateIndex.isWarm() && pageable.isPaged() && pageable.getSort().isUnsorted()) {
+            return hydrate(birthDateIndex.find(from, to, pageable.getOffset(), pageable.getPageSize()),
+                    () -> userRepository.findAllByBirthDateBetween(pageable, from, to).getContent());
         }
         return userRepository.findAllByBirthDateBetween(pageable, from, to).getContent();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserSlice searchUsers(LocalDate from, LocalDate to, String cursor, int size) {
+        log.debug("Searching users with date range: from {} to {} after cursor {}", from, to, cursor);
+        if (Objects.isNull(from) || Objects.isNull(to)) {
+            throw new ValidationException("Both 'from' and 'to' are required for cursor search.");
+        }
+        UserValidation.validateDateRange(from, to);
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        Limit limit = Limit.of(size + 1);
+        List<User> users;
+        if (cursor == null || cursor.isBlank()) {
+            Supplier<List<User>> query = () -> userRepository.findAllByBirthDateBetweenOrderByBirthDateAscIdAsc(from, to, limit);
+            users = birthDateIndex.isWarm() ? hydrate(birthDateIndex.find(from, to, 0, size + 1), query) : query.get();
+        } else {
+            String[] position = decodeCursor(cursor);
+            LocalDate lastBirthDate = LocalDate.ofEpochDay(Long.parseLong(position[0]));
+            long lastId = Long.parseLong(position[1]);
+            Supplier<List<User>> query = () -> userRepository.findAllByBirthDateBetweenAfter(from, to, lastBirthDate, lastId, limit);
+            users = birthDateIndex.isWarm() ? hydrate(birthDateIndex.findAfter(from, to, lastBirthDate, lastId, size + 1), query) : query.get();
+        }
+        if (users.size() <= size) {
+            return new UserSlice(users, null);
+        }
+        List<User> page = users.subList(0, size);
+        return new UserSlice(page, encodeCursor(page.get(size - 1)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> searchUsers(String query, LocalDate from, LocalDate to, Pageable pageable) {
+        log.debug("Searching users matching '{}' with date range: from {} to {}", query, from, to);
+        String text = query == null ? "" : query.strip().toLowerCase(Locale.ROOT);
+        if (text.isEmpty() || text.length() > MAX_SEARCH_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search text must be between 1 and " + MAX_SEARCH_QUERY_LENGTH + " characters");
+        }
+        LocalDate start = Objects.isNull(from) ? MIN_BIRTH_DATE : from;
+        LocalDate end = Objects.isNull(to) ? MAX_BIRTH_DATE : to;
+        UserValidation.validateDateRange(start, end);
+        if (pageable.getPageSize() > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        UserValidation.validatePage(pageable);
+        String escaped = escapeLike(text);
+        return userRepository.searchByText(text, "%" + escaped + "%", escaped + "%", start, end,
+                pageable.getPageSize(), pageable.getOffset());
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> searchUsers(Pageable pageable, LocalDate from, LocalDate to, List<UserField> fields) {
+        log.debug("Searching users with date range: from {} to {} selecting {}", from, to, fields);
+        UserValidation.validatePage(pageable);
+        if (Objects.isNull(from) || Objects.isNull(to)) {
+            return userRepository.findFields(fields, null, null, pageable);
+        }
+        UserValidation.validateDateRange(from, to);
+        return userRepository.findFields(fields, from, to, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportUsers(LocalDate from, LocalDate to, List<UserField> fields, Consumer<Map<String, Object>> sink) {
+        log.info("Exporting users with date range: from {} to {} selecting {}", from, to, fields);
+        UserValidation.validateDateRange(from, to);
+        long exported = 0;
+        try (Stream<Map<String, Object>> rows = userRepository.streamFields(fields, from, to)) {
+            for (Map<String, Object> row : (Iterable<Map<String, Object>>) rows::iterator) {
+                sink.accept(row);
+                exported++;
+            }
+        }
+        log.info("Exported {} users", exported);
+    }
+
+    // The index follows commits with a small delay, so it can still list a user that was just deleted.
+    // Dropping such ids would give a short page and end cursor pagination early, so the query runs instead.
+    private List<User> hydrate(long[] ids, Supplier<List<User>> query) {
+        if (ids.length == 0) {
+            return List.of();
+        }
+        Map<Long, User> users = userRepository.findAllById(Arrays.stream(ids).boxed().toList()).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        if (users.size() < ids.length) {
+            log.debug("Birth date index listed {} users that no longer exist, querying the database", ids.length - users.size());
+            return query.get();
+        }
+        return Arrays.stream(ids).mapToObj(users::get).toList();
+    }
+
+    private static String encodeCursor(User last) {
+        String position = last.getBirthDate().toEpochDay() + ":" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (position.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            Long.parseLong(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
 }
@@ -0,0 +1,23 @@
+package org.example.projecttestassignment.services;
+
+import org.example.projecttestassignment.dto.UserRequest;
+import org.example.projecttestassignment.model.User;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+public interface ReactiveUserService {
+
+    Mono<User> createUser(UserRequest request);
+
+    Mono<User> findUserById(Long id);
+
+    Mono<User> updateUser(Long userId, UserRequest request, Long expectedVersion);
+
+    Mono<User> partialUpdateUser(Long userId, UserRequest request, Long expectedVersion);
+
+    Mono<Void> deleteUser(Long userId);
+
+    Flux<User> searchUsers(LocalDate from, LocalDate to);
+}
@@ -1,17 +1,33 @@
 package org.example.projecttestassignment.services;
 
+import org.example.projecttestassignment.dto.BatchImportResult;
+import org.example.projecttestassignment.dto.UserField;
 import org.example.projecttestassignment.dto.UserRequest;
+import org.example.projecttestassignment.dto.UserSlice;
 import org.example.projecttestassignment.model.User;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface UserService {
     User createUser(UserRequest user);
+    BatchImportResult importUsers(Iterator<UserRequest> users);
     User findUserById(Long id);
     User updateUser(Long userId, UserRequest user);
+    User updateUser(Long userId, UserRequest user, Long expectedVersion);
     User partialUpdateUser(Long userId, UserRequest partialUser);
+    User partialUpdateUser(Long userId, UserRequest partialUser, Long expectedVersion);
     void deleteUser(Long userId);
+    int deleteUsers(Collection<Long> userIds);
+    int deleteUsers(LocalDate from, LocalDate to);
     List<User>searchUsers(Pageable pageable, LocalDate from, LocalDate to);
+    UserSlice searchUsers(LocalDate from, LocalDate to, String cursor, int size);
+    List<User> searchUsers(String query, LocalDate from, LocalDate to, Pageable pageable);
+    List<Map<String, Object>> searchUsers(Pageable pageable, LocalDate from, LocalDate to, List<UserField> fields);
+    void exportUsers(LocalDate from, LocalDate to, List<UserField> fields, Consumer<Map<String, Object>> sink);
 }
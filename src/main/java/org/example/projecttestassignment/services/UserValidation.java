@@ -0,0 +1,53 @@
+package org.example.projecttestassignment.services;
+
+import jakarta.validation.ValidationException;
+import org.example.projecttestassignment.dto.UserRequest;
+import org.example.projecttestassignment.exception.PreconditionFailedException;
+import org.example.projecttestassignment.model.User;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+
+// Business rules shared by the blocking and the reactive user services.
+public final class UserValidation {
+
+    private UserValidation() {
+    }
+
+    public static void validateNewUser(UserRequest request, int minAge, LocalDate today) {
+        if (request.getEmail()==null ||
+            request.getFirstName()==null||
+            request.getLastName()==null||
+            request.getBirthDate()==null){
+            throw new IllegalArgumentException("\"Не всі обов'язкові поля були вказані");
+        }
+        if (request.getBirthDate().plusYears(minAge).isAfter(today)){
+            throw new IllegalArgumentException("Користувач повинен бути старше 18 років");
+        }
+    }
+
+    public static void validateDateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new ValidationException("Invalid date range: 'from' should be before 'to'.");
+        }
+    }
+
+    // JPA takes the first result as an int, so a larger page * size would wrap around instead of returning an empty page.
+    public static void validatePage(Pageable pageable) {
+        if (pageable.isPaged() && pageable.getOffset() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Page offset must not exceed " + Integer.MAX_VALUE);
+        }
+    }
+
+    public static boolean hasChanges(UserRequest request) {
+        return request.getEmail() != null || request.getFirstName() != null || request.getLastName() != null
+                || request.getBirthDate() != null || request.getAddress() != null || request.getPhoneNumber() != null;
+    }
+
+    public static void checkVersion(User user, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            throw new PreconditionFailedException("User with id " + user.getId() + " was modified: expected version "
+                    + expectedVersion + " but found " + user.getVersion());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+create extension if not exists pg_trgm;
+
+create index if not exists idx_users_first_name_trgm on users using gin (lower(first_name) gin_trgm_ops);
+create index if not exists idx_users_last_name_trgm on users using gin (lower(last_name) gin_trgm_ops);
+create index if not exists idx_users_email_trgm on users using gin (lower(email) gin_trgm_ops);
+create index if not exists idx_users_phone_number_trgm on users using gin (phone_number gin_trgm_ops);
+
+create index if not exists idx_user_changes_unpublished on user_changes (insert_order) where position is null;
@@ -0,0 +1,139 @@
+package org.example.projecttestassignment.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.projecttestassignment.exception.UserNotFoundException;
+import org.example.projecttestassignment.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TwoTierUserCacheTest {
+
+    private InMemorySharedUserCache shared;
+    private TwoTierUserCache nodeA;
+    private TwoTierUserCache nodeB;
+
+    @BeforeEach
+    void setUp() {
+        shared = new InMemorySharedUserCache();
+        nodeA = node("a");
+        nodeB = node("b");
+    }
+
+    @Test
+    void get_whenUpdatedOnAnotherNode_thenReturnsNewVersion() {
+        nodeA.get(1L, () -> user(1L, 1L, "Old"));
+
+        nodeB.put(1L, user(1L, 2L, "New"));
+
+        User user = nodeA.get(1L, User.class);
+        assertEquals("New", user.getFirstName());
+        assertEquals(2L, user.getVersion());
+    }
+
+    @Test
+    void get_whenLoadedInAnotherNode_thenServedFromSharedTier() {
+        AtomicInteger loads = new AtomicInteger();
+        nodeA.get(1L, () -> {
+            loads.incrementAndGet();
+            return user(1L, 1L, "John");
+        });
+
+        User user = nodeB.get(1L, () -> {
+            loads.incrementAndGet();
+            return user(1L, 1L, "John");
+        });
+
+        assertEquals("John", user.getFirstName());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_whenSlowReadFinishesAfterRemoteUpdate_thenStaleVersionIsNotCached() {
+        User loaded = nodeA.get(1L, () -> {
+            nodeB.put(1L, user(1L, 2L, "New"));
+            return user(1L, 1L, "Old");
+        });
+
+        assertEquals("Old", loaded.getFirstName());
+        assertEquals("New", nodeA.get(1L, User.class).getFirstName());
+        assertEquals(2L, shared.get(1L).version());
+    }
+
+    @Test
+    void get_whenEvictedOnAnotherNode_thenOldRowIsNotCachedAgain() {
+        nodeA.get(1L, () -> user(1L, 1L, "John"));
+
+        nodeB.evict(1L);
+
+        assertNull(nodeA.get(1L));
+        nodeA.get(1L, () -> user(1L, 1L, "John"));
+        assertNull(nodeA.get(1L));
+    }
+
+    @Test
+    void clear_whenCalledOnAnotherNode_thenEmptiesEveryTier() {
+        nodeA.get(1L, () -> user(1L, 1L, "John"));
+
+        nodeB.clear();
+
+        assertNull(nodeA.get(1L));
+        assertNull(shared.get(1L));
+    }
+
+    @Test
+    void put_whenIdMarkedMissingOnAnotherNode_thenClearsMark() {
+        MissingUserCache missingOnB = new MissingUserCache(true, 100, Duration.ofMinutes(1));
+        shared.subscribe(missingOnB::onInvalidation);
+        missingOnB.markMissing(1L);
+
+        nodeA.put(1L, user(1L, 0L, "John"));
+        assertFalse(missingOnB.isMissing(1L));
+
+        nodeA.evict(1L);
+        assertTrue(missingOnB.isMissing(1L));
+    }
+
+    @Test
+    void get_whenLoaderFails_thenPropagatesAndCachesNothing() {
+        Cache.ValueRetrievalException e = assertThrows(Cache.ValueRetrievalException.class,
+                () -> nodeA.get(1L, () -> {
+                    throw new UserNotFoundException("User with id 1 not found");
+                }));
+
+        assertInstanceOf(UserNotFoundException.class, e.getCause());
+        assertNull(nodeA.get(1L));
+    }
+
+    @Test
+    void get_whenSharedTierFails_thenFallsBackToLoader() {
+        TwoTierUserCache node = new TwoTierUserCache("users", Caffeine.newBuilder().build(), new InMemorySharedUserCache() {
+            @Override
+            public VersionedUser get(Long userId) {
+                throw new IllegalStateException("Connection refused");
+            }
+
+            @Override
+            public void put(Long userId, VersionedUser entry) {
+                throw new IllegalStateException("Connection refused");
+            }
+        }, "c");
+
+        assertEquals("John", node.get(1L, () -> user(1L, 1L, "John")).getFirstName());
+        assertEquals("John", node.get(1L, User.class).getFirstName());
+    }
+
+    private TwoTierUserCache node(String nodeId) {
+        return new TwoTierUserCache("users", Caffeine.newBuilder().maximumSize(100).build(), shared, nodeId);
+    }
+
+    private static User user(Long id, Long version, String firstName) {
+        return new User(id, "user" + id + "@example.com", firstName, "Doe", LocalDate.of(1990, 1, 1), null, null, version);
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.projecttestassignment.changes;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.projecttestassignment.dto.UserChanges;
+import org.example.projecttestassignment.exception.ChangesExpiredException;
+import org.example.projecttestassignment.model.UserChange;
+import org.example.projecttestassignment.model.UserChangeType;
+import org.example.projecttestassignment.repository.UserChangeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserChangeFeedTest {
+
+    @Mock
+    private UserChangeRepository userChangeRepository;
+
+    private UserChangeFeed userChangeFeed;
+
+    @BeforeEach
+    void setUp() {
+        userChangeFeed = new UserChangeFeed(userChangeRepository, new ObjectMapper(), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void poll_whenChangesExist_thenReturnsImmediately() {
+        when(userChangeRepository.findByPositionGreaterThanOrderByPosition(4L, Limit.of(10)))
+                .thenReturn(List.of(change(5L, UserChangeType.CREATED, "{\"id\":1,\"email\":\"a@example.com\"}")));
+
+        DeferredResult<UserChanges> result = userChangeFeed.poll(4L, 10);
+
+        UserChanges changes = (UserChanges) result.getResult();
+        assertEquals(5L, changes.next());
+        assertEquals("a@example.com", changes.changes().get(0).user().get("email").asText());
+        assertFalse(userChangeFeed.hasWaiters());
+    }
+
+    @Test
+    void poll_whenNothingNew_thenWaitsUntilPublished() {
+        when(userChangeRepository.findByPositionGreaterThanOrderByPosition(5L, Limit.of(10)))
+                .thenReturn(List.of())
+                .thenReturn(List.of(change(6L, UserChangeType.DELETED, null)));
+        when(userChangeRepository.findMaxPosition()).thenReturn(5L);
+
+        DeferredResult<UserChanges> result = userChangeFeed.poll(5L, 10);
+        assertFalse(result.hasResult());
+        assertTrue(userChangeFeed.hasWaiters());
+
+        userChangeFeed.published(5L);
+        assertFalse(result.hasResult());
+
+        userChangeFeed.published(6L);
+        UserChanges changes = (UserChanges) result.getResult();
+        assertEquals(6L, changes.next());
+        assertNull(changes.changes().get(0).user());
+        assertFalse(userChangeFeed.hasWaiters());
+    }
+
+    @Test
+    void poll_whenChangesAfterSinceExpired_thenThrowsExpired() {
+        when(userChangeRepository.findByPositionGreaterThanOrderByPosition(4L, Limit.of(10)))
+                .thenReturn(List.of(change(9L, UserChangeType.UPDATED, "{\"id\":1}")));
+
+        assertThrows(ChangesExpiredException.class, () -> userChangeFeed.poll(4L, 10));
+        assertFalse(userChangeFeed.hasWaiters());
+    }
+
+    @Test
+    void poll_whenSinceAheadOfFeed_thenThrowsExpired() {
+        when(userChangeRepository.findByPositionGreaterThanOrderByPosition(40L, Limit.of(10))).thenReturn(List.of());
+        when(userChangeRepository.findMaxPosition()).thenReturn(3L);
+
+        assertThrows(ChangesExpiredException.class, () -> userChangeFeed.poll(40L, 10));
+        assertFalse(userChangeFeed.hasWaiters());
+    }
+
+    @Test
+    void poll_whenLimitOutOfRange_thenThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> userChangeFeed.poll(0L, UserChangeFeed.MAX_LIMIT + 1));
+        verifyNoInteractions(userChangeRepository);
+    }
+
+    private static UserChange change(long position, UserChangeType type, String payload) {
+        return new UserChange(position, 1L, type, payload, LocalDateTime.of(2024, 4, 27, 12, 0), position, position);
+    }
+}
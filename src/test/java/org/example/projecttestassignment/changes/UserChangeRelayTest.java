@@ -0,0 +1,92 @@
+package org.example.projecttestassignment.changes;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.projecttestassignment.dto.UserChangeEvent;
+import org.example.projecttestassignment.model.UserChange;
+import org.example.projecttestassignment.model.UserChangeType;
+import org.example.projecttestassignment.repository.UserChangeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UserChangeRelayTest {
+
+    @Mock
+    private UserChangeRepository userChangeRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // Committed positions by change id; null while unpublished.
+    private final Map<Long, Long> positions = new TreeMap<>();
+    private final List<UserChangeEvent> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= 3; id++) {
+            positions.put(id, null);
+        }
+        when(userChangeRepository.findMaxPosition()).thenAnswer(invocation ->
+                positions.values().stream().filter(p -> p != null).max(Long::compare).orElse(null));
+        when(userChangeRepository.assignPosition(anyLong(), anyLong())).thenAnswer(invocation -> {
+            long id = invocation.getArgument(0);
+            if (positions.get(id) != null) {
+                return 0;
+            }
+            positions.put(id, invocation.getArgument(1));
+            return 1;
+        });
+    }
+
+    @Test
+    void relay_whenAnotherRelayPublishesTheSameBatchFirst_thenKeepsItsPositions() {
+        UserChangeRelay nodeA = relay();
+        UserChangeRelay nodeB = relay();
+        // Node B selects the unpublished changes, then node A publishes them before B assigns positions.
+        when(userChangeRepository.findByPositionIsNullOrderByInsertOrder(any(Limit.class)))
+                .thenAnswer(invocation -> {
+                    List<UserChange> selected = unpublished();
+                    nodeA.relay();
+                    return selected;
+                })
+                .thenAnswer(invocation -> unpublished());
+
+        nodeB.relay();
+
+        assertEquals(Map.of(1L, 1L, 2L, 2L, 3L, 3L), positions);
+        assertEquals(List.of(1L, 2L, 3L), events.stream().map(UserChangeEvent::position).toList());
+    }
+
+    private UserChangeRelay relay() {
+        ApplicationEventPublisher eventPublisher = event -> events.add((UserChangeEvent) event);
+        UserChangeFeed feed = new UserChangeFeed(userChangeRepository, new ObjectMapper(), Duration.ofSeconds(30));
+        return new UserChangeRelay(500, Duration.ofDays(7), userChangeRepository, feed, eventPublisher,
+                transactionManager, Clock.systemUTC());
+    }
+
+    private List<UserChange> unpublished() {
+        return positions.entrySet().stream()
+                .filter(entry -> entry.getValue() == null)
+                .map(entry -> new UserChange(entry.getKey(), entry.getKey(), UserChangeType.UPDATED, null,
+                        LocalDateTime.of(2024, 4, 27, 12, 0), null, entry.getKey()))
+                .toList();
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.projecttestassignment.controllers;
+
+import org.example.projecttestassignment.dto.UserRequest;
+import org.example.projecttestassignment.exception.GlobalExceptionHandler;
+import org.example.projecttestassignment.exception.UserNotFoundException;
+import org.example.projecttestassignment.logging.RequestLogSampler;
+import org.example.projecttestassignment.model.User;
+import org.example.projecttestassignment.services.ReactiveUserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class ReactiveUserControllerContractTest extends UserApiContractTest {
+
+    private final ReactiveUserService reactiveUserService = mock(ReactiveUserService.class);
+
+    @BeforeEach
+    void setUp() {
+        ReactiveUserController controller = new ReactiveUserController(reactiveUserService, apiMetrics, new RequestLogSampler());
+        client = WebTestClient.bindToController(controller)
+                .controllerAdvice(new GlobalExceptionHandler(apiMetrics))
+                .build();
+    }
+
+    @Override
+    protected void givenCreated(User user) {
+        when(reactiveUserService.createUser(any(UserRequest.class))).thenReturn(Mono.just(user));
+    }
+
+    @Override
+    protected void givenFound(User user) {
+        when(reactiveUserService.findUserById(user.getId())).thenReturn(Mono.just(user));
+    }
+
+    @Override
+    protected void givenNotFound(Long id) {
+        when(reactiveUserService.findUserById(id)).thenReturn(Mono.error(new UserNotFoundException("User with id " + id + " not found")));
+    }
+
+    @Override
+    protected void givenUpdated(User user) {
+        when(reactiveUserService.updateUser(eq(user.getId()), any(UserRequest.class), isNull())).thenReturn(Mono.just(user));
+    }
+
+    @Override
+    protected void givenPatched(User user, Long expectedVersion) {
+        when(reactiveUserService.partialUpdateUser(eq(user.getId()), any(UserRequest.class), eq(expectedVersion))).thenReturn(Mono.just(user));
+    }
+
+    @Override
+    protected void givenUpdateFails(Long id, RuntimeException e) {
+        when(reactiveUserService.updateUser(eq(id), any(UserRequest.class), isNull())).thenReturn(Mono.error(e));
+    }
+
+    @Override
+    protected void givenDeleted(Long id) {
+        when(reactiveUserService.deleteUser(id)).thenReturn(Mono.empty());
+    }
+
+    @Override
+    protected void givenNotFoundOnDelete(Long id) {
+        when(reactiveUserService.deleteUser(id)).thenReturn(Mono.error(new UserNotFoundException("User with id " + id + " not found")));
+    }
+
+    @Override
+    protected void verifyNotCreated() {
+        verify(reactiveUserService, never()).createUser(any(UserRequest.class));
+    }
+
+    @Test
+    void searchUsers_whenNdjsonAccepted_thenStreamsUsers() {
+        Flux<User> users = Flux.range(1, 1000).map(i -> user(i.longValue(), 0L));
+        when(reactiveUserService.searchUsers(LocalDate.of(1990, 1, 1), null)).thenReturn(users);
+
+        Flux<User> body = client.get().uri("/users/search?from=1990-01-01")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(User.class)
+                .getResponseBody();
+
+        assertEquals(1000L, body.count().block());
+    }
+}
@@ -0,0 +1,235 @@
+package org.example.projecttestassignment.controllers;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.projecttestassignment.metrics.ApiMetrics;
+import org.example.projecttestassignment.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Shared by the servlet and the reactive /users controllers so both stacks keep the same HTTP contract
+public abstract class UserApiContractTest {
+
+    private static final String VALID_BODY = "{\"email\":\"email@example.com\"," +
+            "\"firstName\":\"John\"," +
+            "\"lastName\":\"Doe\"," +
+            "\"birthDate\":\"2000-01-01\"," +
+            "\"address\":\"123 Main St\"," +
+            "\"phoneNumber\":\"555-1234\"}";
+
+    protected final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    protected final ApiMetrics apiMetrics = new ApiMetrics(meterRegistry);
+
+    protected WebTestClient client;
+
+    protected abstract void givenCreated(User user);
+
+    protected abstract void givenFound(User user);
+
+    protected abstract void givenNotFound(Long id);
+
+    protected abstract void givenUpdated(User user);
+
+    protected abstract void givenPatched(User user, Long expectedVersion);
+
+    protected abstract void givenUpdateFails(Long id, RuntimeException e);
+
+    protected abstract void givenDeleted(Long id);
+
+    protected abstract void givenNotFoundOnDelete(Long id);
+
+    protected abstract void verifyNotCreated();
+
+    @Test
+    void createUser_whenValid_thenReturnsCreatedWithLocation() {
+        givenCreated(user(1L, 0L));
+
+        client.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(VALID_BODY)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().value("Location", location -> assertEquals("/users/1", location.replaceFirst("^https?://[^/]+", "")))
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.email").isEqualTo("email@example.com");
+    }
+
+    @Test
+    void createUser_whenFirstNameMissing_thenReturnsBadRequest() {
+        client.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"email\":\"email@example.com\",\"lastName\":\"Doe\",\"birthDate\":\"2000-01-01\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(HttpStatus.BAD_REQUEST.name())
+                .jsonPath("$.errors").isNotEmpty();
+
+        verifyNotCreated();
+    }
+
+    @Test
+    void getUser_whenUserFound_thenReturnsUserWithETag() {
+        givenFound(user(1L, 3L));
+
+        client.get().uri("/users/{id}", 1L)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"3\"")
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1);
+    }
+
+    @Test
+    void getUser_whenETagMatches_thenReturnsNotModified() {
+        givenFound(user(1L, 3L));
+
+        client.get().uri("/users/{id}", 1L)
+                .header("If-None-Match", "\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void getUser_whenUserNotFound_thenReturnsNotFound() {
+        givenNotFound(1L);
+
+        client.get().uri("/users/{id}", 1L)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(HttpStatus.NOT_FOUND.value())
+                .jsonPath("$.message").isEqualTo("User with id 1 not found");
+
+        assertEquals(1.0, meterRegistry.counter("user.api.errors", "exception", "UserNotFoundException").count());
+    }
+
+    @Test
+    void updateUser_whenValid_thenReturnsUpdatedUser() {
+        givenUpdated(user(1L, 1L));
+
+        client.put().uri("/users/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(VALID_BODY)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"1\"")
+                .expectBody()
+                .jsonPath("$.email").isEqualTo("email@example.com");
+    }
+
+    @Test
+    void patchUser_whenIfMatchGiven_thenPassesExpectedVersion() {
+        givenPatched(user(1L, 4L), 3L);
+
+        client.patch().uri("/users/{id}", 1L)
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\":\"Jane\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"4\"");
+    }
+
+    @Test
+    void patchUser_whenIfMatchMalformed_thenReturnsPreconditionFailed() {
+        client.patch().uri("/users/{id}", 1L)
+                .header("If-Match", "\"abc\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\":\"Jane\"}")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void patchUser_whenIfMatchWeak_thenReturnsPreconditionFailed() {
+        client.patch().uri("/users/{id}", 1L)
+                .header("If-Match", "W/\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\":\"Jane\"}")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void patchUser_whenIfMatchListsCurrentVersion_thenPassesIt() {
+        givenFound(user(1L, 4L));
+        givenPatched(user(1L, 5L), 4L);
+
+        client.patch().uri("/users/{id}", 1L)
+                .header("If-Match", "\"3\", \"4\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\":\"Jane\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"5\"");
+    }
+
+    @Test
+    void patchUser_whenIfMatchListMissesCurrentVersion_thenReturnsPreconditionFailed() {
+        givenFound(user(1L, 7L));
+
+        client.patch().uri("/users/{id}", 1L)
+                .header("If-Match", "\"3\", \"4\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\":\"Jane\"}")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void updateUser_whenUniqueConstraintViolated_thenReturnsConflict() {
+        givenUpdateFails(1L, new DataIntegrityViolationException("could not execute statement",
+                new SQLException("duplicate key value violates unique constraint", "23505")));
+
+        client.put().uri("/users/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(VALID_BODY)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void updateUser_whenNotNullConstraintViolated_thenReturnsBadRequest() {
+        givenUpdateFails(1L, new DataIntegrityViolationException("could not execute statement",
+                new SQLException("null value in column \"email\" violates not-null constraint", "23502")));
+
+        client.put().uri("/users/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(VALID_BODY)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void deleteUser_whenUserExists_thenReturnsNoContent() {
+        givenDeleted(1L);
+
+        client.delete().uri("/users/{id}", 1L)
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    void deleteUser_whenUserNotFound_thenReturnsNotFound() {
+        givenNotFoundOnDelete(1L);
+
+        client.delete().uri("/users/{id}", 1L)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    protected static User user(Long id, Long version) {
+        return new User(id, "email@example.com", "John", "Doe", LocalDate.of(2000, 1, 1), "123 Main St", "555-1234", version);
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.projecttestassignment.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.projecttestassignment.dto.UserRequest;
+import org.example.projecttestassignment.dto.UserSlice;
+import org.example.projecttestassignment.exception.GlobalExceptionHandler;
+import org.example.projecttestassignment.exception.UserNotFoundException;
+import org.example.projecttestassignment.idempotency.IdempotencyStore;
+import org.example.projecttestassignment.logging.RequestLogSampler;
+import org.example.projecttestassignment.model.User;
+import org.example.projecttestassignment.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.test.web.servlet.client.MockMvcWebTestClient;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+public class UserControllerContractTest extends UserApiContractTest {
+
+    private final UserService userService = mock(UserService.class);
+
+    @BeforeEach
+    void setUp() {
+        UserController userController = new UserController(userService, new ObjectMapper().findAndRegisterModules(),
+                apiMetrics, new RequestLogSampler(), new IdempotencyStore(true, 100, Duration.ofMinutes(1), "X-Client"), null);
+        client = MockMvcWebTestClient.bindToController(userController)
+                .controllerAdvice(new GlobalExceptionHandler(apiMetrics))
+                .customArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+                .build();
+    }
+
+    @Test
+    void searchUsers_whenCursorModeGiven_thenReturnsFirstSlice() {
+        LocalDate from = LocalDate.of(1990, 1, 1);
+        LocalDate to = LocalDate.of(2000, 1, 1);
+        when(userService.searchUsers(from, to, null, 1)).thenReturn(new UserSlice(List.of(user(1L, 0L)), "next"));
+
+        client.get().uri("/users/search?from={from}&to={to}&mode=cursor&size=1", from, to)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.users[0].id").isEqualTo(1)
+                .jsonPath("$.nextCursor").isEqualTo("next");
+    }
+
+    @Test
+    void searchUsers_whenNextCursorGiven_thenReturnsFollowingSlice() {
+        LocalDate from = LocalDate.of(1990, 1, 1);
+        LocalDate to = LocalDate.of(2000, 1, 1);
+        when(userService.searchUsers(from, to, "next", 1)).thenReturn(new UserSlice(List.of(user(2L, 0L)), null));
+
+        client.get().uri("/users/search?from={from}&to={to}&mode=cursor&cursor=next&size=1", from, to)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.users[0].id").isEqualTo(2)
+                .jsonPath("$.nextCursor").doesNotExist();
+    }
+
+    @Override
+    protected void givenCreated(User user) {
+        when(userService.createUser(any(UserRequest.class))).thenReturn(user);
+    }
+
+    @Override
+    protected void givenFound(User user) {
+        when(userService.findUserById(user.getId())).thenReturn(user);
+    }
+
+    @Override
+    protected void givenNotFound(Long id) {
+        when(userService.findUserById(id)).thenThrow(new UserNotFoundException("User with id " + id + " not found"));
+    }
+
+    @Override
+    protected void givenUpdated(User user) {
+        when(userService.updateUser(eq(user.getId()), any(UserRequest.class))).thenReturn(user);
+    }
+
+    @Override
+    protected void givenPatched(User user, Long expectedVersion) {
+        when(userService.partialUpdateUser(eq(user.getId()), any(UserRequest.class), eq(expectedVersion))).thenReturn(user);
+    }
+
+    @Override
+    protected void givenUpdateFails(Long id, RuntimeException e) {
+        when(userService.updateUser(eq(id), any(UserRequest.class))).thenThrow(e);
+    }
+
+    @Override
+    protected void givenDeleted(Long id) {
+        doNothing().when(userService).deleteUser(id);
+    }
+
+    @Override
+    protected void givenNotFoundOnDelete(Long id) {
+        doThrow(new UserNotFoundException("User with id " + id + " not found")).when(userService).deleteUser(id);
+    }
+
+    @Override
+    protected void verifyNotCreated() {
+        verify(userService, never()).createUser(any(UserRequest.class));
+    }
+}
@@ -1,24 +1,43 @@
 package org.example.projecttestassignment.controllers;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.projecttestassignment.changes.UserChangeFeed;
+import org.example.projecttestassignment.dto.BatchImportResult;
+import org.example.projecttestassignment.dto.UserChangeEvent;
+import org.example.projecttestassignment.dto.UserChanges;
+import org.example.projecttestassignment.dto.UserField;
 import org.example.projecttestassignment.dto.UserRequest;
+import org.example.projecttestassignment.dto.UserSlice;
 import org.example.projecttestassignment.exception.UserNotFoundException;
+import org.example.projecttestassignment.idempotency.IdempotencyStore;
+import org.example.projecttestassignment.logging.RequestLogSampler;
+import org.example.projecttestassignment.metrics.ApiMetrics;
 import org.example.projecttestassignment.model.User;
+import org.example.projecttestassignment.model.UserChangeType;
 import org.example.projecttestassignment.services.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -26,8 +45,15 @@ import static org.mockito.Mockito.*;
 
 
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @ExtendWith(SpringExtension.class)
 public class UserControllerTest {
@@ -37,18 +63,37 @@ public class UserControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private UserChangeFeed userChangeFeed;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ApiMetrics apiMetrics = new ApiMetrics(meterRegistry);
+
+    @Spy
+    private RequestLogSampler requestLogSampler = new RequestLogSampler();
+
+    @Spy
+    private IdempotencyStore idempotencyStore = new IdempotencyStore(true, 100, Duration.ofMinutes(1), "X-Client");
+
     @InjectMocks
     private UserController userController;
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(userController).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(userController)
+                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+                .build();
     }
 
     @Test
     void createUser_Success() throws Exception {
         UserRequest userRequest = new UserRequest("email@example.com", "John", "Doe", LocalDate.now().minusYears(20), "123 Main St", "555-1234");
-        User user = new User(1L, "email@example.com", "John", "Doe", LocalDate.now().minusYears(20), "123 Main St", "555-1234");
+        User user = new User(1L, "email@example.com", "John", "Doe", LocalDate.now().minusYears(20), "123 Main St", "555-1234", 0L);
 
         when(userService.createUser(any(UserRequest.class))).thenReturn(user);
 
@@ -66,6 +111,98 @@ public class UserControllerTest {
         verify(userService).createUser(any(UserRequest.class));
     }
 
+    @Test
+    void createUser_whenIdempotencyKeyRepeated_thenReplaysResponse() throws Exception {
+        User user = new User(1L, "email@example.com", "John", "Doe", LocalDate.of(2000, 1, 1), null, null, 0L);
+        String body = "{\"email\":\"email@example.com\",\"firstName\":\"John\",\"lastName\":\"Doe\",\"birthDate\":\"2000-01-01\"}";
+
+        when(userService.createUser(any(UserRequest.class))).thenReturn(user);
+
+        mockMvc.perform(post("/users").header("Idempotency-Key", "abc")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        mockMvc.perform(post("/users").header("Idempotency-Key", "abc")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "http://localhost/users/1"))
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(1L));
+
+        verify(userService, times(1)).createUser(any(UserRequest.class));
+    }
+
+    @Test
+    void createUser_whenIdempotencyKeyReusedByAnotherClient_thenCreatesSeparately() throws Exception {
+        User first = new User(1L, "email@example.com", "John", "Doe", LocalDate.of(2000, 1, 1), null, null, 0L);
+        User second = new User(2L, "email@example.com", "John", "Doe", LocalDate.of(2000, 1, 1), null, null, 0L);
+        String body = "{\"email\":\"email@example.com\",\"firstName\":\"John\",\"lastName\":\"Doe\",\"birthDate\":\"2000-01-01\"}";
+
+        when(userService.createUser(any(UserRequest.class))).thenReturn(first).thenReturn(second);
+
+        mockMvc.perform(post("/users").header("Idempotency-Key", "abc").header("X-Client", "client-a")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1L));
+        mockMvc.perform(post("/users").header("Idempotency-Key", "abc").header("X-Client", "client-b")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andExpect(header().string("Location", "http://localhost/users/2"))
+                .andExpect(jsonPath("$.id").value(2L));
+
+        verify(userService, times(2)).createUser(any(UserRequest.class));
+    }
+
+    @Test
+    void importUsers_whenNdjson_thenReturnsSummary() throws Exception {
+        when(userService.importUsers(any())).thenAnswer(invocation -> {
+            Iterator<UserRequest> requests = invocation.getArgument(0);
+            int count = 0;
+            while (requests.hasNext()) {
+                requests.next();
+                count++;
+            }
+            return new BatchImportResult(count, count, 0, List.of());
+        });
+
+        mockMvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"email\":\"a@example.com\",\"firstName\":\"Ann\",\"lastName\":\"Doe\",\"birthDate\":\"1990-01-01\"}\n" +
+                                "{\"email\":\"b@example.com\",\"firstName\":\"Bob\",\"lastName\":\"Doe\",\"birthDate\":\"1991-01-01\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(2))
+                .andExpect(jsonPath("$.created").value(2));
+
+        verify(userService).importUsers(any());
+    }
+
+    @Test
+    void importUsers_whenRowMalformed_thenReportsRowAndContinues() throws Exception {
+        when(userService.importUsers(any())).thenAnswer(invocation -> {
+            Iterator<UserRequest> requests = invocation.getArgument(0);
+            List<BatchImportResult.RowResult> rows = new ArrayList<>();
+            for (int row = 0; requests.hasNext(); row++) {
+                try {
+                    rows.add(BatchImportResult.RowResult.created(row, requests.next().getBirthDate().toEpochDay()));
+                } catch (IllegalArgumentException e) {
+                    rows.add(BatchImportResult.RowResult.failed(row, e.getMessage()));
+                }
+            }
+            return new BatchImportResult(rows.size(), rows.size() - 1, 1, rows);
+        });
+
+        mockMvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"email\":\"a@example.com\",\"firstName\":\"Ann\",\"lastName\":\"Doe\",\"birthDate\":\"1990-01-01\"}\n" +
+                                "{\"email\":\"b@example.com\",\"firstName\":\"Bob\",\"lastName\":\"Doe\",\"birthDate\":\"not a date\"}\n" +
+                                "{\"email\":\"c@example.com\",\"firstName\":\"Cid\",\"lastName\":\"Doe\",\"birthDate\":\"1991-01-01\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(3))
+                .andExpect(jsonPath("$.rows[1].error").value(startsWith("Malformed row")))
+                .andExpect(jsonPath("$.rows[2].id").value(LocalDate.of(1991, 1, 1).toEpochDay()));
+    }
+
     @Test
     public void getUser_whenUserFound_thenReturnsUser() throws Exception {
         Long userId = 1L;
@@ -93,6 +230,7 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.message").value("User with id " + userId + " not found"));
 
         verify(userService).findUserById(userId);
+        assertEquals(1.0, meterRegistry.counter("user.api.errors", "exception", "UserNotFoundException").count());
     }
 
     @Test
@@ -104,7 +242,7 @@ public class UserControllerTest {
                 "456 New St", "555-6789");
         User updatedUser = new User(userId, "email@update.com",
                 "John", "Doe", LocalDate.now().minusYears(25),
-                "456 New St", "555-6789");
+                "456 New St", "555-6789", 1L);
 
         when(userService.updateUser(eq(userId), any(UserRequest.class))).thenReturn(updatedUser);
 
@@ -209,6 +347,176 @@ public class UserControllerTest {
         verify(userService).searchUsers(any(PageRequest.class), eq(from), eq(to));
     }
 
+    @Test
+    public void searchUsers_whenCursorGiven_thenReturnsSliceWithNextCursor() throws Exception {
+        LocalDate from = LocalDate.of(1990, 1, 1);
+        LocalDate to = LocalDate.of(2000, 1, 1);
+        UserSlice slice = new UserSlice(List.of(new User(), new User()), "next");
+
+        when(userService.searchUsers(eq(from), eq(to), eq(""), eq(2))).thenReturn(slice);
+
+        mockMvc.perform(get("/users/search")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .param("cursor", "")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(2)))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(userService).searchUsers(eq(from), eq(to), eq(""), eq(2));
+    }
+
+    @Test
+    public void searchUsers_whenTextGiven_thenReturnsRankedUsers() throws Exception {
+        when(userService.searchUsers(eq("doe"), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(List.of(new User(), new User()));
+
+        mockMvc.perform(get("/users/search").param("q", "doe"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        verify(userService).searchUsers(eq("doe"), isNull(), isNull(), any(Pageable.class));
+    }
+
+    @Test
+    public void exportUsers_whenCsv_thenStreamsRows() throws Exception {
+        LocalDate from = LocalDate.of(1990, 1, 1);
+        LocalDate to = LocalDate.of(2000, 1, 1);
+        User user = new User(1L, "email@example.com", "John", "Doe, Jr.", LocalDate.of(1995, 5, 5), null, "555-1234", 0L);
+
+        doAnswer(invocation -> {
+            Consumer<Map<String, Object>> sink = invocation.getArgument(3);
+            Map<String, Object> row = new LinkedHashMap<>();
+            UserField.all().forEach(field -> row.put(field.getAttribute(), field.valueOf(user)));
+            sink.accept(row);
+            return null;
+        }).when(userService).exportUsers(eq(from), eq(to), eq(UserField.all()), any());
+
+        MvcResult mvcResult = mockMvc.perform(get("/users/export")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().string("id,email,firstName,lastName,birthDate,address,phoneNumber\n" +
+                        "1,email@example.com,John,\"Doe, Jr.\",1995-05-05,,555-1234\n"));
+
+        verify(userService).exportUsers(eq(from), eq(to), eq(UserField.all()), any());
+    }
+
+    @Test
+    public void searchUsers_whenFieldsGiven_thenReturnsOnlySelectedFields() throws Exception {
+        LocalDate from = LocalDate.of(1990, 1, 1);
+        LocalDate to = LocalDate.of(2000, 1, 1);
+        List<UserField> fields = List.of(UserField.ID, UserField.EMAIL);
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1L);
+        row.put("email", "email@example.com");
+
+        when(userService.searchUsers(any(Pageable.class), eq(from), eq(to), eq(fields))).thenReturn(List.of(row));
+
+        mockMvc.perform(get("/users/search")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .param("fields", "id, email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].email").value("email@example.com"))
+                .andExpect(jsonPath("$[0].firstName").doesNotExist());
+
+        verify(userService, never()).searchUsers(any(Pageable.class), any(LocalDate.class), any(LocalDate.class));
+    }
+
+    @Test
+    public void searchUsers_whenCborAccepted_thenReturnsCbor() throws Exception {
+        User user = new User(1L, "email@example.com", "John", "Doe", LocalDate.of(1995, 5, 5), null, "555-1234", 0L);
+        when(userService.searchUsers(eq("doe"), isNull(), isNull(), any(Pageable.class))).thenReturn(List.of(user));
+
+        MvcResult mvcResult = mockMvc.perform(get("/users/search").param("q", "doe")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        User[] users = new ObjectMapper(new CBORFactory()).findAndRegisterModules()
+                .readValue(mvcResult.getResponse().getContentAsByteArray(), User[].class);
+        assertEquals(1, users.length);
+        assertEquals("email@example.com", users[0].getEmail());
+        assertEquals(LocalDate.of(1995, 5, 5), users[0].getBirthDate());
+
+        mockMvc.perform(get("/users/search").param("q", "doe"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].email").value("email@example.com"));
+    }
+
+    @Test
+    public void getChanges_whenChangesAvailable_thenReturnsThemWithNextPosition() throws Exception {
+        UserChangeEvent event = new UserChangeEvent(8L, 1L, UserChangeType.DELETED, LocalDateTime.of(2024, 4, 27, 12, 0), null);
+        DeferredResult<UserChanges> result = new DeferredResult<>();
+        result.setResult(new UserChanges(List.of(event), 8L));
+        when(userChangeFeed.poll(7L, 100)).thenReturn(result);
 
+        MvcResult mvcResult = mockMvc.perform(get("/users/changes").param("since", "7"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.next").value(8))
+                .andExpect(jsonPath("$.changes[0].userId").value(1))
+                .andExpect(jsonPath("$.changes[0].type").value("DELETED"));
+    }
+
+    @Test
+    public void getUser_whenETagMatches_thenReturnsNotModified() throws Exception {
+        Long userId = 1L;
+        User user = new User();
+        user.setId(userId);
+        user.setVersion(3L);
+
+        when(userService.findUserById(userId)).thenReturn(user);
+
+        mockMvc.perform(get("/users/{id}", userId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+
+        mockMvc.perform(get("/users/{id}", userId).header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void patchUser_whenIfMatchGiven_thenPassesExpectedVersion() throws Exception {
+        Long userId = 1L;
+        User patchedUser = new User();
+        patchedUser.setId(userId);
+        patchedUser.setVersion(4L);
+
+        when(userService.partialUpdateUser(eq(userId), any(UserRequest.class), eq(3L))).thenReturn(patchedUser);
+
+        mockMvc.perform(patch("/users/{id}", userId)
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Jane\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+
+        verify(userService).partialUpdateUser(eq(userId), any(UserRequest.class), eq(3L));
+    }
+
+    @Test
+    void deleteUsers_whenIdsGiven_thenReturnsDeletedCount() throws Exception {
+        when(userService.deleteUsers(List.of(1L, 2L, 3L))).thenReturn(2);
+
+        mockMvc.perform(delete("/users").param("ids", "1", "2", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+
+        verify(userService).deleteUsers(List.of(1L, 2L, 3L));
+    }
 
 }
@@ -0,0 +1,114 @@
+package org.example.projecttestassignment.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replica1Connection = mock(Connection.class);
+    private final Connection replica2Connection = mock(Connection.class);
+
+    private HikariDataSource replica1;
+    private HikariDataSource replica2;
+    private ReplicaPool replicaPool;
+    private ReadYourWrites readYourWrites;
+    private ReadWriteRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        HikariDataSource primary = pool("primary", primaryConnection);
+        replica1 = pool("replica-1", replica1Connection);
+        replica2 = pool("replica-2", replica2Connection);
+        replicaPool = new ReplicaPool(List.of(replica1, replica2), Duration.ofSeconds(1));
+        readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), 100);
+        dataSource = new ReadWriteRoutingDataSource(primary, replicaPool, readYourWrites);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        readYourWrites.release();
+    }
+
+    @Test
+    void getConnection_whenNotReadOnly_thenUsesPrimary() throws SQLException {
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_whenReadOnly_thenRoundRobinsReplicas() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(replica1Connection, dataSource.getConnection());
+        assertSame(replica2Connection, dataSource.getConnection());
+        assertSame(replica1Connection, dataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_whenClientWroteRecently_thenReadsFromPrimary() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        readYourWrites.recordWrite("client");
+
+        assertTrue(readYourWrites.wroteRecently("client"));
+        readYourWrites.pin();
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_whenReplicaFails_thenFailsOverAndSkipsIt() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica1.getConnection()).thenThrow(new SQLTransientConnectionException("Connection refused"));
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertSame(replica2Connection, dataSource.getConnection());
+        assertSame(replica2Connection, dataSource.getConnection());
+        assertEquals("UP", replicaPool.health().getStatus().getCode());
+    }
+
+    @Test
+    void check_whenEveryReplicaIsDown_thenReadsGoToPrimaryUntilRecovery() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica1Connection.isValid(anyInt())).thenReturn(false);
+        when(replica2Connection.isValid(anyInt())).thenReturn(false);
+
+        replicaPool.check();
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertEquals(ReplicaPool.DEGRADED, replicaPool.health().getStatus());
+
+        when(replica2Connection.isValid(anyInt())).thenReturn(true);
+        replicaPool.check();
+
+        assertSame(replica2Connection, dataSource.getConnection());
+        assertEquals("UP", replicaPool.health().getStatus().getCode());
+    }
+
+    @Test
+    void unwrap_whenHikariRequested_thenReturnsPrimary() throws SQLException {
+        assertTrue(dataSource.isWrapperFor(HikariDataSource.class));
+        assertEquals("primary", dataSource.unwrap(HikariDataSource.class).getPoolName());
+    }
+
+    private static HikariDataSource pool(String name, Connection connection) throws SQLException {
+        HikariDataSource pool = mock(HikariDataSource.class);
+        when(pool.getPoolName()).thenReturn(name);
+        when(pool.getConnection()).thenReturn(connection);
+        when(pool.isWrapperFor(HikariDataSource.class)).thenReturn(true);
+        when(pool.unwrap(HikariDataSource.class)).thenReturn(pool);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        return pool;
+    }
+}
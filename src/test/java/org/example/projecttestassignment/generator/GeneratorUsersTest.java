@@ -0,0 +1,102 @@
+package org.example.projecttestassignment.generator;
+
+import org.example.projecttestassignment.cache.MissingUserCache;
+import org.example.projecttestassignment.dto.GenerationRequest;
+import org.example.projecttestassignment.dto.GenerationResult;
+import org.example.projecttestassignment.index.BirthDateIndex;
+import org.example.projecttestassignment.index.BirthDateIndexLoader;
+import org.example.projecttestassignment.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class GeneratorUsersTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 4, 27);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private BirthDateIndexLoader birthDateIndexLoader;
+
+    private GeneratorUsers generatorUsers;
+    private final List<Object[]> rows = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() throws NoSuchFieldException, IllegalAccessException {
+        generatorUsers = new GeneratorUsers(jdbcTemplate, new TransactionTemplate(transactionManager), () -> TODAY,
+                new MissingUserCache(true, 1000, Duration.ofMinutes(1)), new BirthDateIndex(false), birthDateIndexLoader);
+        setField("MIN_AGE", 18);
+        setField("MAX_AGE", 65);
+        setField("WORKERS", 4);
+        setField("BATCH_SIZE", 100);
+        setField("DISTRIBUTION", BirthDateDistribution.UNIFORM);
+    }
+
+    private void setField(String name, Object value) throws NoSuchFieldException, IllegalAccessException {
+        Field field = GeneratorUsers.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(generatorUsers, value);
+    }
+
+    @Test
+    void generate_InsertsUniqueUsersInBatchesAcrossWorkers() {
+        AtomicLong sequence = new AtomicLong(1);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+                .thenAnswer(invocation -> sequence.getAndAdd(User.ID_ALLOCATION_SIZE));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> batch = invocation.getArgument(1);
+            assertTrue(batch.size() <= 64);
+            rows.addAll(batch);
+            return new int[batch.size()];
+        });
+
+        GenerationResult result = generatorUsers.generate(
+                new GenerationRequest(1000L, 3, 64, BirthDateDistribution.NORMAL, 20, 30, 42L, "test"));
+
+        assertEquals(1000, result.rows());
+        assertEquals(1000, rows.size());
+        Set<Object> ids = new HashSet<>();
+        Set<Object> emails = new HashSet<>();
+        for (Object[] row : rows) {
+            assertTrue((Long) row[0] > 0);
+            assertTrue(ids.add(row[0]));
+            assertTrue(emails.add(row[1]));
+            LocalDate birthDate = (LocalDate) row[4];
+            assertFalse(birthDate.isAfter(TODAY.minusYears(20)));
+            assertTrue(birthDate.isAfter(TODAY.minusYears(31)));
+        }
+        verify(birthDateIndexLoader, never()).load();
+    }
+
+    @Test
+    void generate_RejectsUnderageUsers() {
+        assertThrows(IllegalArgumentException.class,
+                () -> generatorUsers.generate(new GenerationRequest(10L, null, null, null, 16, 30, null, null)));
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
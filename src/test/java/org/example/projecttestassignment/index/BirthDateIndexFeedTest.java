@@ -0,0 +1,70 @@
+package org.example.projecttestassignment.index;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.projecttestassignment.model.User;
+import org.example.projecttestassignment.model.UserChange;
+import org.example.projecttestassignment.model.UserChangeType;
+import org.example.projecttestassignment.repository.UserChangeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BirthDateIndexFeedTest {
+
+    private static final LocalDate FROM = LocalDate.of(1980, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2000, 1, 1);
+
+    @Mock
+    private UserChangeRepository userChangeRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final BirthDateIndex birthDateIndex = new BirthDateIndex(true);
+    private BirthDateIndexFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new BirthDateIndexFeed(500, birthDateIndex, userChangeRepository, objectMapper);
+        when(userChangeRepository.findMaxPosition()).thenReturn(7L);
+        feed.start();
+        birthDateIndex.load(Stream::empty);
+    }
+
+    @Test
+    void follow_whenAnotherNodeWritesUsers_thenAppliesTheirChanges() throws Exception {
+        when(userChangeRepository.findByPositionGreaterThanOrderByPosition(eq(7L), any(Limit.class)))
+                .thenReturn(List.of(
+                        change(8, 1L, UserChangeType.CREATED, LocalDate.of(1990, 5, 1)),
+                        change(9, 2L, UserChangeType.CREATED, LocalDate.of(1985, 3, 2)),
+                        change(10, 1L, UserChangeType.UPDATED, LocalDate.of(2010, 1, 1)),
+                        change(11, 2L, UserChangeType.DELETED, null),
+                        change(12, 3L, UserChangeType.CREATED, LocalDate.of(1995, 7, 3))));
+        when(userChangeRepository.findByPositionGreaterThanOrderByPosition(eq(12L), any(Limit.class)))
+                .thenReturn(List.of());
+
+        feed.follow();
+        feed.follow();
+
+        assertArrayEquals(new long[]{3L}, birthDateIndex.find(FROM, TO, 0, 10));
+    }
+
+    private UserChange change(long position, Long userId, UserChangeType type, LocalDate birthDate) throws Exception {
+        String payload = type == UserChangeType.DELETED ? null
+                : objectMapper.writeValueAsString(User.builder().id(userId).birthDate(birthDate).build());
+        return new UserChange(position, userId, type, payload, LocalDateTime.of(2024, 4, 27, 12, 0), position, position);
+    }
+}
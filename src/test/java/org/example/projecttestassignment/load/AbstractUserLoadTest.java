@@ -0,0 +1,135 @@
+package org.example.projecttestassignment.load;
+
+import org.example.projecttestassignment.model.User;
+import org.example.projecttestassignment.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.PageRequest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"user.cache.enabled=false", "user.cache.missing.enabled=false",
+                "user.rate-limit.enabled=false", "user.load-shedding.enabled=false"})
+abstract class AbstractUserLoadTest {
+
+    private static final int REQUESTS = Integer.getInteger("load.requests", 20000);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 400);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private List<Long> ids;
+
+    abstract String mode();
+
+    @BeforeEach
+    void loadIds() {
+        ids = userRepository.findAll(PageRequest.of(0, 40)).map(User::getId).getContent();
+        assertFalse(ids.isEmpty());
+    }
+
+    @Test
+    void getUser_throughputAndLatency() throws Exception {
+        int errors = measure("GET /users/{id}", CONCURRENCY, (worker, request) ->
+                HttpRequest.newBuilder(uri(ids.get(request % ids.size()))).GET().build());
+        assertEquals(0, errors);
+    }
+
+    @Test
+    void patchUser_throughputAndLatency() throws Exception {
+        // One user per worker so concurrent patches never race on the same row.
+        int errors = measure("PATCH /users/{id}", Math.min(CONCURRENCY, ids.size()), (worker, request) ->
+                HttpRequest.newBuilder(uri(ids.get(worker)))
+                        .header("Content-Type", "application/json")
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"address\":\"" + request + " Load St\"}"))
+                        .build());
+        assertEquals(0, errors);
+    }
+
+    @Test
+    void createUser_throughputAndLatency() throws Exception {
+        String run = Long.toString(System.nanoTime(), 36);
+        int errors = measure("POST /users", CONCURRENCY, (worker, request) ->
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"load-" + run + "-" + request + "@example.com\"," +
+                                "\"firstName\":\"Load\",\"lastName\":\"Test\",\"birthDate\":\"1990-01-01\"}"))
+                        .build());
+        assertEquals(0, errors);
+    }
+
+    @Test
+    void searchUsers_throughputAndLatency() throws Exception {
+        int errors = measure("GET /users/search", CONCURRENCY, (worker, request) ->
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/search?from=1900-01-01&to=2000-12-31"
+                        + "&page=" + request % 5 + "&size=20")).GET().build());
+        assertEquals(0, errors);
+    }
+
+    private URI uri(Long id) {
+        return URI.create("http://localhost:" + port + "/users/" + id);
+    }
+
+    private int measure(String endpoint, int concurrency, BiFunction<Integer, Integer, HttpRequest> requests) {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        long started = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                int worker = i;
+                workers.submit(() -> {
+                    int request;
+                    while ((request = next.getAndIncrement()) < REQUESTS) {
+                        HttpRequest httpRequest = requests.apply(worker, request);
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(httpRequest, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() / 100 != 2) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[request] = System.nanoTime() - start;
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+
+        Arrays.sort(latencies);
+        System.out.printf("%s %s: %d requests, concurrency %d, %.0f req/s, p50 %.2f ms, p99 %.2f ms, errors %d%n",
+                mode(), endpoint, REQUESTS, concurrency,
+                REQUESTS / (elapsed / 1_000_000_000.0),
+                latencies[REQUESTS / 2] / 1_000_000.0,
+                latencies[(int) (REQUESTS * 0.99)] / 1_000_000.0,
+                errors.get());
+        return errors.get();
+    }
+}
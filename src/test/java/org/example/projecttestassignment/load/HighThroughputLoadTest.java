@@ -0,0 +1,12 @@
+package org.example.projecttestassignment.load;
+
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("high-throughput")
+class HighThroughputLoadTest extends AbstractUserLoadTest {
+
+    @Override
+    String mode() {
+        return "high-throughput";
+    }
+}
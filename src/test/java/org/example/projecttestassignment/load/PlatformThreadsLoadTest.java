@@ -0,0 +1,9 @@
+package org.example.projecttestassignment.load;
+
+class PlatformThreadsLoadTest extends AbstractUserLoadTest {
+
+    @Override
+    String mode() {
+        return "platform-threads";
+    }
+}
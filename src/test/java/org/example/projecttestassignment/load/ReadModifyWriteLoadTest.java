@@ -0,0 +1,12 @@
+package org.example.projecttestassignment.load;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "user.update.single-statement=false")
+class ReadModifyWriteLoadTest extends AbstractUserLoadTest {
+
+    @Override
+    String mode() {
+        return "read-modify-write";
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.projecttestassignment.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.projecttestassignment.metrics.ApiMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ThrottlingFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void budget_whenBurstIsSpent_thenWaitsForRefill() {
+        RateLimiter.Budget budget = new RateLimiter.Budget(3, 10, 100);
+        long now = 0;
+
+        assertEquals(0, budget.tryAcquire("a", now));
+        assertEquals(0, budget.tryAcquire("a", now));
+        assertEquals(0, budget.tryAcquire("a", now));
+        long wait = budget.tryAcquire("a", now);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), wait);
+        assertEquals(0, budget.tryAcquire("b", now));
+
+        assertEquals(0, budget.tryAcquire("a", now + wait));
+        assertTrue(budget.tryAcquire("a", now + wait) > 0);
+    }
+
+    @Test
+    void doFilter_whenReadBudgetIsSpent_thenReturns429WithRetryAfter() throws Exception {
+        ThrottlingFilter filter = filter(new RateLimiter(true, 2, 1, 5, 1, 100), shedder(false, 10));
+
+        assertEquals(200, perform(filter, "GET", "10.0.0.1").getStatus());
+        assertEquals(200, perform(filter, "GET", "10.0.0.1").getStatus());
+        MockHttpServletResponse rejected = perform(filter, "GET", "10.0.0.1");
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("Rate limit exceeded"));
+        assertEquals(200, perform(filter, "GET", "10.0.0.2").getStatus());
+        assertEquals(200, perform(filter, "PATCH", "10.0.0.1").getStatus());
+        assertEquals(1, meterRegistry.get("user.api.rejected").tag("reason", "rate_limit").counter().count());
+    }
+
+    @Test
+    void doFilter_whenTooManyRequestsInFlight_thenReturns503() throws Exception {
+        LoadShedder shedder = shedder(true, 1);
+        ThrottlingFilter filter = filter(new RateLimiter(false, 1, 1, 1, 1, 1), shedder);
+        assertTrue(shedder.tryEnter());
+
+        MockHttpServletResponse rejected = perform(filter, "GET", "10.0.0.1");
+
+        assertEquals(503, rejected.getStatus());
+        assertEquals("2", rejected.getHeader("Retry-After"));
+        shedder.exit();
+        assertEquals(200, perform(filter, "GET", "10.0.0.1").getStatus());
+        assertEquals(0, shedder.inFlight());
+    }
+
+    @Test
+    void doFilter_whenPathIsNotUsers_thenSkipsThrottling() throws Exception {
+        ThrottlingFilter filter = filter(new RateLimiter(true, 1, 1, 1, 1, 100), shedder(false, 1));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain());
+            assertEquals(200, response.getStatus());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private LoadShedder shedder(boolean enabled, int maxInFlight) {
+        return new LoadShedder(enabled, maxInFlight, 10, Duration.ofMillis(250),
+                mock(ObjectProvider.class), meterRegistry);
+    }
+
+    private ThrottlingFilter filter(RateLimiter rateLimiter, LoadShedder loadShedder) {
+        return new ThrottlingFilter(rateLimiter, loadShedder, new ApiMetrics(meterRegistry), new ObjectMapper(),
+                "", Duration.ofSeconds(2));
+    }
+
+    private MockHttpServletResponse perform(ThrottlingFilter filter, String method, String remoteAddress)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/users/1");
+        request.setRemoteAddr(remoteAddress);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
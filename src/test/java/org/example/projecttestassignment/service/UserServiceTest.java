@@ -1,10 +1,21 @@
 package org.example.projecttestassignment.service;
 
 
+import jakarta.validation.Validation;
+import org.example.projecttestassignment.cache.MissingUserCache;
+import org.example.projecttestassignment.changes.UserChangeOutbox;
 import jakarta.validation.ValidationException;
+import org.example.projecttestassignment.index.BirthDateIndex;
+import org.example.projecttestassignment.dto.BatchImportResult;
+import org.example.projecttestassignment.dto.UserField;
 import org.example.projecttestassignment.dto.UserRequest;
+import org.example.projecttestassignment.dto.UserSlice;
+import org.example.projecttestassignment.exception.ConflictException;
+import org.example.projecttestassignment.exception.PreconditionFailedException;
 import org.example.projecttestassignment.exception.UserNotFoundException;
 import org.example.projecttestassignment.model.User;
+import org.example.projecttestassignment.model.UserChangeType;
+import org.example.projecttestassignment.repository.UserBirthDate;
 import org.example.projecttestassignment.repository.UserRepository;
 import org.example.projecttestassignment.services.Impl.UserServiceImpl;
 import org.example.projecttestassignment.services.TimeProvider;
@@ -18,22 +29,34 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.lang.reflect.Field;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 
@@ -44,6 +67,10 @@ public class UserServiceTest {
     private UserRepository userRepository;
     @Mock
     private Clock clock;
+    @Mock
+    private UserChangeOutbox userChangeOutbox;
+    @Mock
+    private PlatformTransactionManager transactionManager;
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -52,16 +79,43 @@ public class UserServiceTest {
 
     @BeforeEach
     void setUp() throws NoSuchFieldException, IllegalAccessException {
+        userService = newUserService(new BirthDateIndex(false));
+
+        user = new User(1L, "email@example.com", "John", "Doe", LocalDate.of(2000, 1, 1), "123 Main St", "555-1234", 0L);
+        userRequest = new UserRequest("email@example.com", "John", "Doe", LocalDate.of(2000, 1, 1), "123 Main St", "555-1234");
+    }
+
+    private UserServiceImpl newUserService(BirthDateIndex birthDateIndex) throws NoSuchFieldException, IllegalAccessException {
         TimeProvider timeProvider = () -> LocalDate.of(2024, 4, 27);
-        userService = new UserServiceImpl(userRepository, timeProvider);
+        UserServiceImpl userService = new UserServiceImpl(userRepository, timeProvider,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new MissingUserCache(true, 1000, Duration.ofMinutes(1)),
+                birthDateIndex,
+                userChangeOutbox,
+                new TransactionTemplate(transactionManager));
 
         // Use reflection to set the MIN_AGE field
         Field minAgeField = UserServiceImpl.class.getDeclaredField("MIN_AGE");
         minAgeField.setAccessible(true);
         minAgeField.set(userService, 18);
+        Field batchSizeField = UserServiceImpl.class.getDeclaredField("IMPORT_BATCH_SIZE");
+        batchSizeField.setAccessible(true);
+        batchSizeField.set(userService, 2);
+        return userService;
+    }
 
-        user = new User(1L, "email@example.com", "John", "Doe", LocalDate.of(2000, 1, 1), "123 Main St", "555-1234");
-        userRequest = new UserRequest("email@example.com", "John", "Doe", LocalDate.of(2000, 1, 1), "123 Main St", "555-1234");
+    private static UserBirthDate birthDate(long id, LocalDate date) {
+        return new UserBirthDate() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDate getBirthDate() {
+                return date;
+            }
+        };
     }
 
     @Test
@@ -73,6 +127,155 @@ public class UserServiceTest {
         assertNotNull(createdUser);
         assertEquals(user.getEmail(), createdUser.getEmail());
         verify(userRepository).save(any(User.class));
+        verify(userChangeOutbox).record(UserChangeType.CREATED, user);
+    }
+
+    @Test
+    void createUser_whenIdLookedUpBeforeCommit_thenMarksPresentAfterCommit() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        assertThrows(UserNotFoundException.class, () -> userService.findUserById(1L));
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userService.createUser(userRequest);
+            assertThrows(UserNotFoundException.class, () -> userService.findUserById(1L));
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        assertEquals(user, userService.findUserById(1L));
+    }
+
+    @Test
+    void createUser_whenEmailExists_thenThrowsConflictWithoutInsert() {
+        when(userRepository.existsByEmail(userRequest.getEmail())).thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> userService.createUser(userRequest));
+
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void createUser_whenInsertHitsUniqueConstraint_thenThrowsConflict() {
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertThrows(ConflictException.class, () -> userService.createUser(userRequest));
+    }
+
+    @Test
+    void importUsers_SavesValidRowsInBatches() {
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> batch = invocation.getArgument(0);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setId((long) i + 1);
+            }
+            return batch;
+        });
+        List<UserRequest> requests = List.of(
+                new UserRequest("a@example.com", "Ann", "Doe", LocalDate.of(1990, 1, 1), null, null),
+                new UserRequest("b@example.com", "Bob", "Doe", LocalDate.of(2020, 1, 1), null, null),
+                new UserRequest("c@example.com", "Cid", "Doe", LocalDate.of(1991, 1, 1), null, null),
+                new UserRequest("a@example.com", "Ann", "Doe", LocalDate.of(1990, 1, 1), null, null),
+                new UserRequest("d@example.com", "Dan", "Doe", LocalDate.of(1992, 1, 1), null, null));
+
+        BatchImportResult result = userService.importUsers(requests.iterator());
+
+        assertEquals(5, result.received());
+        assertEquals(3, result.created());
+        assertEquals(2, result.failed());
+        assertNotNull(result.rows().get(1).error());
+        assertNotNull(result.rows().get(3).error());
+        assertNull(result.rows().get(4).error());
+        verify(userRepository, times(2)).saveAll(anyList());
+        verify(userRepository, never()).save(any(User.class));
+        verify(userChangeOutbox, times(3)).record(eq(UserChangeType.CREATED), any(User.class));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void deleteUsers_RecordsChangeForEachDeletedUser() {
+        when(userRepository.deleteByIdsReturning(List.of(1L, 2L, 3L))).thenReturn(List.of(1L, 3L));
+
+        assertEquals(2, userService.deleteUsers(List.of(1L, 2L, 3L)));
+
+        verify(userChangeOutbox).recordDeleted(1L);
+        verify(userChangeOutbox).recordDeleted(3L);
+        verify(userChangeOutbox, never()).recordDeleted(2L);
+    }
+
+    @Test
+    void deleteUsers_MarksOnlyDeletedIdsMissing() {
+        when(userRepository.deleteByIdsReturning(List.of(1L, 2L))).thenReturn(List.of(1L));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(user));
+
+        userService.deleteUsers(List.of(1L, 2L));
+
+        assertThrows(UserNotFoundException.class, () -> userService.findUserById(1L));
+        assertEquals(user, userService.findUserById(2L));
+        verify(userRepository, never()).findById(1L);
+    }
+
+    @Test
+    void deleteUser_whenRolledBack_thenDoesNotMarkMissing() {
+        when(userRepository.deleteUserById(1L)).thenReturn(1);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userService.deleteUser(1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(user, userService.findUserById(1L));
+    }
+
+    @Test
+    void deleteUsers_ByDateRange_RecordsChangeForEachDeletedUser() {
+        LocalDate from = LocalDate.of(1990, 1, 1);
+        LocalDate to = LocalDate.of(2000, 1, 1);
+        when(userRepository.deleteByBirthDateBetweenReturning(from, to)).thenReturn(List.of(4L, 5L));
+
+        assertEquals(2, userService.deleteUsers(from, to));
+
+        verify(userChangeOutbox).recordDeleted(4L);
+        verify(userChangeOutbox).recordDeleted(5L);
+    }
+
+    @Test
+    void importUsers_whenInputBreaks_thenKeepsReadRowsAndReportsFailure() {
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> batch = invocation.getArgument(0);
+            batch.get(0).setId(1L);
+            return batch;
+        });
+        Iterator<UserRequest> requests = new Iterator<>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                if (read == 1) {
+                    throw new RuntimeException("Unexpected end-of-input");
+                }
+                return true;
+            }
+
+            @Override
+            public UserRequest next() {
+                read++;
+                return new UserRequest("a@example.com", "Ann", "Doe", LocalDate.of(1990, 1, 1), null, null);
+            }
+        };
+
+        BatchImportResult result = userService.importUsers(requests);
+
+        assertEquals(2, result.received());
+        assertEquals(1, result.created());
+        assertEquals(1L, result.rows().get(0).id());
+        assertNotNull(result.rows().get(1).error());
     }
 
     @Test
@@ -86,11 +289,34 @@ public class UserServiceTest {
         verify(userRepository).findById(userId);
     }
 
+    @Test
+    void findUserById_LoadsInReadWriteTransaction() {
+        User user = new User(1L, "john@example.com", "John", "Doe", LocalDate.of(1990, 1, 1), null, null, 0L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        assertEquals(user, userService.findUserById(1L));
+
+        verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
+    }
+
+    @Test
+    void findUserById_NotFound_RepeatedLookupSkipsRepository() {
+        Long userId = 1L;
+        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> userService.findUserById(userId));
+        assertThrows(UserNotFoundException.class, () -> userService.findUserById(userId));
+        assertThrows(UserNotFoundException.class, () -> userService.deleteUser(userId));
+
+        verify(userRepository, times(1)).findById(userId);
+        verify(userRepository, never()).deleteUserById(userId);
+    }
+
     @Test
     void updateUser_Success() {
         // Arrange
         Long userId = 1L;
-        User updatedUser = new User(userId, "newemail@example.com", "Jane", "Doe", LocalDate.of(1999, 12, 31), "321 New St", "555-4321");
+        User updatedUser = new User(userId, "newemail@example.com", "Jane", "Doe", LocalDate.of(1999, 12, 31), "321 New St", "555-4321", 1L);
         UserRequest updateRequest = new UserRequest("newemail@example.com", "Jane", "Doe", LocalDate.of(1999, 12, 31), "321 New St", "555-4321");
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
@@ -104,6 +330,7 @@ public class UserServiceTest {
         assertEquals(updateRequest.getEmail(), result.getEmail());
         assertEquals(updateRequest.getFirstName(), result.getFirstName());
         verify(userRepository).save(any(User.class));
+        verify(userChangeOutbox).record(UserChangeType.UPDATED, updatedUser);
     }
 
     @Test
@@ -115,6 +342,32 @@ public class UserServiceTest {
         // Act & Assert
         assertThrows(UserNotFoundException.class, () -> userService.updateUser(userId, userRequest));
         verify(userRepository, never()).save(any(User.class));
+        verifyNoInteractions(userChangeOutbox);
+    }
+
+    @Test
+    void updateUser_StaleVersion() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        assertThrows(PreconditionFailedException.class, () -> userService.updateUser(1L, userRequest, 5L));
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void partialUpdateUser_SingleStatement() throws NoSuchFieldException, IllegalAccessException {
+        Field singleStatementField = UserServiceImpl.class.getDeclaredField("SINGLE_STATEMENT_UPDATE");
+        singleStatementField.setAccessible(true);
+        singleStatementField.set(userService, true);
+        UserRequest partialUpdateRequest = new UserRequest(null, "Jane", null, null, null, null);
+        User patched = new User(1L, "email@example.com", "Jane", "Doe", LocalDate.of(2000, 1, 1), "123 Main St", "555-1234", 1L);
+
+        when(userRepository.updateReturning(eq(1L), any(User.class), eq(true), isNull())).thenReturn(Optional.of(patched));
+        when(userRepository.updateReturning(eq(2L), any(User.class), eq(true), isNull())).thenReturn(Optional.empty());
+
+        assertEquals("Jane", userService.partialUpdateUser(1L, partialUpdateRequest).getFirstName());
+        assertThrows(IllegalArgumentException.class, () -> userService.partialUpdateUser(2L, partialUpdateRequest));
+        verify(userRepository, never()).findById(any());
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
@@ -138,26 +391,39 @@ public class UserServiceTest {
     void deleteUser_Success() {
         // Arrange
         Long userId = 1L;
-        doNothing().when(userRepository).deleteById(userId);
-        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userRepository.deleteUserById(userId)).thenReturn(1);
 
         // Act
         userService.deleteUser(userId);
 
         // Assert
-        verify(userRepository).deleteById(userId);
+        verify(userRepository).deleteUserById(userId);
+        verify(userRepository, never()).existsById(userId);
+        verify(userChangeOutbox).recordDeleted(userId);
     }
     @Test
     void deleteUser_NotFound() {
         // Arrange
         Long userId = 2L; // ID that does not exist
-        when(userRepository.existsById(userId)).thenReturn(false);
+        when(userRepository.deleteUserById(userId)).thenReturn(0);
 
         // Act & Assert
         assertThrows(UserNotFoundException.class, () -> userService.deleteUser(userId));
+        verify(userRepository).deleteUserById(userId);
         verify(userRepository, never()).deleteById(userId);
     }
 
+    @Test
+    void searchUsers_whenPageOffsetOverflowsInt_thenThrowsWithoutQuerying() {
+        PageRequest pageable = PageRequest.of(Integer.MAX_VALUE, 100);
+        LocalDate from = LocalDate.of(1990, 1, 1);
+        LocalDate to = LocalDate.of(2000, 1, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> userService.searchUsers(pageable, from, to));
+        assertThrows(IllegalArgumentException.class, () -> userService.searchUsers(pageable, from, to, UserField.all()));
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     void searchUsers_ByDateRange_Success() {
         // Arrange
@@ -179,6 +445,133 @@ public class UserServiceTest {
         verify(userRepository).findAllByBirthDateBetween(eq(pageable), eq(from), eq(to));
     }
 
+    @Test
+    void searchUsers_WithCursor_SeeksAfterLastRow() {
+        LocalDate from = LocalDate.of(1990, 1, 1);
+        LocalDate to = LocalDate.of(2000, 1, 1);
+        User second = new User(2L, "b@example.com", "Bob", "Doe", LocalDate.of(1995, 1, 1), null, null, 0L);
+        User third = new User(3L, "c@example.com", "Cid", "Doe", LocalDate.of(1996, 1, 1), null, null, 0L);
+
+        when(userRepository.findAllByBirthDateBetweenOrderByBirthDateAscIdAsc(eq(from), eq(to), any(Limit.class)))
+                .thenReturn(List.of(user, second, third));
+
+        UserSlice firstPage = userService.searchUsers(from, to, null, 2);
+
+        assertEquals(2, firstPage.users().size());
+        assertNotNull(firstPage.nextCursor());
+
+        when(userRepository.findAllByBirthDateBetweenAfter(eq(from), eq(to), eq(second.getBirthDate()), eq(2L), any(Limit.class)))
+                .thenReturn(List.of(third));
+
+        UserSlice secondPage = userService.searchUsers(from, to, firstPage.nextCursor(), 2);
+
+        assertEquals(List.of(third), secondPage.users());
+        assertNull(secondPage.nextCursor());
+    }
+
+    @Test
+    void searchUsers_ByText_EscapesWildcardsAndDefaultsRange() {
+        Pageable pageable = PageRequest.of(1, 10);
+        when(userRepository.searchByText(eq("jo_n%"), eq("%jo\\_n\\%%"), eq("jo\\_n\\%%"),
+                any(LocalDate.class), any(LocalDate.class), eq(10), eq(10L)))
+                .thenReturn(List.of(user));
+
+        List<User> result = userService.searchUsers("  Jo_N% ", null, null, pageable);
+
+        assertEquals(List.of(user), result);
+    }
+
+    @Test
+    void searchUsers_ByBlankText() {
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.searchUsers("   ", null, null, PageRequest.of(0, 10)));
+        verify(userRepository, never()).searchByText(any(), any(), any(), any(), any(), anyInt(), anyLong());
+    }
+
+    @Test
+    void searchUsers_WithWarmIndex_HydratesOnlyRequestedPage() throws Exception {
+        BirthDateIndex birthDateIndex = new BirthDateIndex(true);
+        birthDateIndex.load(() -> Stream.of(
+                birthDate(3L, LocalDate.of(1990, 6, 1)),
+                birthDate(2L, LocalDate.of(1995, 1, 1)),
+                birthDate(1L, LocalDate.of(2000, 1, 1))));
+        UserService indexedService = newUserService(birthDateIndex);
+        User second = new User(2L, "b@example.com", "Bob", "Doe", LocalDate.of(1995, 1, 1), null, null, 0L);
+
+        when(userRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(user, second));
+
+        List<User> result = indexedService.searchUsers(PageRequest.of(0, 2), LocalDate.of(1991, 1, 1), LocalDate.of(2000, 1, 1));
+
+        assertEquals(List.of(second, user), result);
+        verify(userRepository, never()).findAllByBirthDateBetween(any(), any(), any());
+    }
+
+    @Test
+    void searchUsers_WithWarmIndex_whenIndexedUserGone_thenQueriesDatabase() throws Exception {
+        BirthDateIndex birthDateIndex = new BirthDateIndex(true);
+        birthDateIndex.load(() -> Stream.of(
+                birthDate(2L, LocalDate.of(1995, 1, 1)),
+                birthDate(3L, LocalDate.of(1996, 1, 1)),
+                birthDate(4L, LocalDate.of(1997, 1, 1))));
+        UserService indexedService = newUserService(birthDateIndex);
+        LocalDate from = LocalDate.of(1990, 1, 1);
+        LocalDate to = LocalDate.of(2000, 1, 1);
+        User third = new User(3L, "c@example.com", "Cid", "Doe", LocalDate.of(1996, 1, 1), null, null, 0L);
+        User fourth = new User(4L, "d@example.com", "Dan", "Doe", LocalDate.of(1997, 1, 1), null, null, 0L);
+        User fifth = new User(5L, "e@example.com", "Eve", "Doe", LocalDate.of(1998, 1, 1), null, null, 0L);
+
+        when(userRepository.findAllById(List.of(2L, 3L, 4L))).thenReturn(List.of(third, fourth));
+        when(userRepository.findAllByBirthDateBetweenOrderByBirthDateAscIdAsc(eq(from), eq(to), any(Limit.class)))
+                .thenReturn(List.of(third, fourth, fifth));
+
+        UserSlice page = indexedService.searchUsers(from, to, null, 2);
+
+        assertEquals(List.of(third, fourth), page.users());
+        assertNotNull(page.nextCursor());
+    }
+
+    @Test
+    void birthDateIndex_IgnoresRolledBackCreate() throws Exception {
+        BirthDateIndex birthDateIndex = new BirthDateIndex(true);
+        birthDateIndex.load(Stream::empty);
+        UserService indexedService = newUserService(birthDateIndex);
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            indexedService.createUser(userRequest);
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, birthDateIndex.size());
+    }
+
+    @Test
+    void birthDateIndex_FollowsCreateAndDelete() throws Exception {
+        BirthDateIndex birthDateIndex = new BirthDateIndex(true);
+        birthDateIndex.load(Stream::empty);
+        UserService indexedService = newUserService(birthDateIndex);
+        LocalDate from = LocalDate.of(1990, 1, 1);
+        LocalDate to = LocalDate.of(2010, 1, 1);
+
+        when(userRepository.save(any(User.class))).thenReturn(user);
+        indexedService.createUser(userRequest);
+        assertArrayEquals(new long[]{1L}, birthDateIndex.find(from, to, 0, 10));
+
+        when(userRepository.deleteUserById(1L)).thenReturn(1);
+        indexedService.deleteUser(1L);
+        assertArrayEquals(new long[0], birthDateIndex.find(from, to, 0, 10));
+    }
+
+    @Test
+    void searchUsers_WithInvalidCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.searchUsers(LocalDate.of(1990, 1, 1), LocalDate.of(2000, 1, 1), "not a cursor", 10));
+    }
+
     @Test
     void searchUsers_InvalidDateRange() {
         // Arrange